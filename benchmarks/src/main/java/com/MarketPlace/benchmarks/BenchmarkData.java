@@ -0,0 +1,125 @@
+package com.MarketPlace.benchmarks;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic fixtures, so every run and every version measures the same inputs without a database,
+ * a cluster or the scraped catalog: a synthetic catalog built from electronics vocabulary, the captured
+ * query set and a product {@code raw_data} document in the shape {@code parse_data.py} produces.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 42;
+
+    private static final String[][] CATEGORIES = {
+            {"Видеокарта", "Видеокарты"},
+            {"Ноутбук", "Ноутбуки"},
+            {"Процессор", "Процессоры"},
+            {"Монитор", "Мониторы"},
+            {"Клавиатура", "Клавиатуры"},
+            {"Мышь", "Мыши"},
+            {"Наушники", "Наушники"},
+            {"Смартфон", "Смартфоны"},
+            {"SSD накопитель", "SSD"},
+            {"Оперативная память", "Оперативная память"},
+            {"Блок питания", "Блоки питания"},
+            {"Кулер для процессора", "Охлаждение"},
+            {"Материнская плата", "Материнские платы"},
+    };
+
+    private static final String[] BRANDS = {
+            "ASUS", "MSI", "Gigabyte", "Lenovo", "Samsung", "Xiaomi", "Logitech", "Kingston",
+            "Intel", "AMD", "Palit", "HyperX", "Acer", "HP", "Huawei", "DEEPCOOL"
+    };
+
+    private static final String[] FEATURES = {
+            "игровой", "беспроводная", "механическая", "16 ГБ", "32 ГБ", "8 ГБ", "1 ТБ", "512 ГБ", "144 Гц",
+            "RGB подсветка", "белый", "черный", "тихий", "компактный", "4K", "DDR5", "PCIe 4.0", "Wi-Fi 6",
+            "USB-C", "с шумоподавлением", "OLED", "модульный", "80 PLUS Gold", "для стриминга"
+    };
+
+    private static final String[] SENTENCES = {
+            "Подходит для игр и работы с графикой.",
+            "Гарантия производителя 3 года, доставка по всей России.",
+            "Надежное охлаждение и низкий уровень шума под нагрузкой.",
+            "Поддерживает современные интерфейсы и быстрые накопители.",
+            "Комплектация: устройство, кабель, документация.",
+            "Оптимальный выбор для домашнего компьютера и офиса.",
+            "Высокая производительность при умеренном энергопотреблении.",
+            "Стильный дизайн и качественные материалы корпуса."
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<Document> documents(int count) {
+        Random random = new Random(SEED);
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String name = category[0] + " " + brand + " " + feature(random) + " " + feature(random);
+
+            StringBuilder text = new StringBuilder(name).append(". ");
+            int sentences = 2 + random.nextInt(4);
+            for (int s = 0; s < sentences; s++) {
+                text.append(SENTENCES[random.nextInt(SENTENCES.length)]).append(' ');
+            }
+
+            double price = 500 + random.nextInt(300_000);
+            documents.add(new Document(new UUID(SEED, i).toString(), text.toString().trim(), name,
+                    new String[]{category[1], brand}, price));
+        }
+        return documents;
+    }
+
+    private static String feature(Random random) {
+        return FEATURES[random.nextInt(FEATURES.length)];
+    }
+
+    /**
+     * The captured query set: {@code -Dbench.queries=<file>} (one query per line), or the bundled
+     * {@code queries.txt}.
+     */
+    static List<String> queries() {
+        String file = System.getProperty("bench.queries");
+        try (InputStream in = file != null
+                ? Files.newInputStream(Path.of(file))
+                : BenchmarkData.class.getResourceAsStream("/queries.txt")) {
+            List<String> queries = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    queries.add(line.trim());
+                }
+            }
+            return queries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A product's {@code raw_data} as stored in Postgres.
+     */
+    static String rawData() {
+        try (InputStream in = BenchmarkData.class.getResourceAsStream("/raw_data.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
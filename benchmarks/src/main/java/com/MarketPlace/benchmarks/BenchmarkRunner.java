@@ -0,0 +1,48 @@
+package com.MarketPlace.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the regular JMH command line, except that results are written
+ * as JSON to {@code target/jmh/<label>.json} unless {@code -rf}/{@code -rff} are given. The label is
+ * {@code -Dbench.label}, or the project version plus a timestamp. Compare two reports with
+ * {@link ReportDiff}.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter LABEL_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(List.of(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            Path report = Path.of("target", "jmh", label() + ".json");
+            Files.createDirectories(report.getParent());
+            options.add("-rff");
+            options.add(report.toString());
+        }
+        Main.main(options.toArray(String[]::new));
+    }
+
+    private static String label() {
+        String label = System.getProperty("bench.label");
+        if (label != null && !label.isBlank()) {
+            return label;
+        }
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        return (version != null ? version : "dev") + "-" + LABEL_TIME.format(LocalDateTime.now());
+    }
+}
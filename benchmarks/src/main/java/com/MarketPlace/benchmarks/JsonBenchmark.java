@@ -0,0 +1,95 @@
+package com.MarketPlace.benchmarks;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.dto.Product;
+import com.dto.SearchDocument;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson work on the request path, for one page of hits:
+ * <ul>
+ *     <li>{@link Document} as the search service writes it and {@link SearchDocument} as processing reads it;</li>
+ *     <li>{@link Product} responses with {@code raw_data} passed through as-is versus parsed into a tree and
+ *     written back out. Run with {@code -prof gc} to compare allocation per operation.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final TypeReference<List<SearchDocument>> SEARCH_DOCUMENTS = new TypeReference<>() {
+    };
+
+    @Param({"20"})
+    public int hits;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private List<Document> documents;
+    private byte[] documentsJson;
+    private List<UUID> productIds;
+    private String rawData;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        documents = BenchmarkData.documents(hits);
+        documentsJson = mapper.writeValueAsBytes(documents);
+        productIds = new ArrayList<>(hits);
+        for (Document document : documents) {
+            productIds.add(UUID.fromString(document.getId()));
+        }
+        rawData = BenchmarkData.rawData();
+    }
+
+    @Benchmark
+    public byte[] writeDocuments() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(documents);
+    }
+
+    @Benchmark
+    public List<SearchDocument> readSearchDocuments() throws Exception {
+        return mapper.readValue(documentsJson, SEARCH_DOCUMENTS);
+    }
+
+    @Benchmark
+    public byte[] writeProductsRawPassthrough() throws JsonProcessingException {
+        List<Product> products = new ArrayList<>(hits);
+        for (UUID id : productIds) {
+            products.add(Product.fromRawJson(id, "Видеокарта MSI GeForce RTX 4070 SUPER", rawData));
+        }
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] writeProductsParsedTree() throws JsonProcessingException {
+        List<Product> products = new ArrayList<>(hits);
+        for (UUID id : productIds) {
+            JsonNode tree = mapper.readTree(rawData);
+            products.add(new Product(id, "Видеокарта MSI GeForce RTX 4070 SUPER", tree));
+        }
+        return mapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,61 @@
+package com.MarketPlace.benchmarks;
+
+import com.component.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtService} token generation and validation: a full parse and signature check, and the cached
+ * verification the auth filter does for a token it has seen before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "very-secret-key-change-me-1234567890";
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+
+    @Param({"false", "true"})
+    public boolean embedRoles;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 3_600_000, 10_000, embedRoles);
+        token = jwtService.generateToken("user@example.com", ROLES);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken("user@example.com", ROLES);
+    }
+
+    @Benchmark
+    public String parseAndValidate() {
+        return jwtService.getUsername(token);
+    }
+
+    @Benchmark
+    public Optional<JwtService.VerifiedToken> verifyCached() {
+        return jwtService.verify(token);
+    }
+}
@@ -0,0 +1,233 @@
+package com.MarketPlace.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running processing service, for what JMH can't show: request
+ * threads, the Hikari pool and the search service under concurrency. Each client logs in once and then
+ * repeats a search from the query set followed by a product lookup for one of its hits.
+ * <pre>
+ * java -Dload.url=http://localhost:8080 -Dload.concurrency=400 -Dload.duration=60s -Dload.label=virtual \
+ *      -cp benchmarks/target/benchmarks.jar com.MarketPlace.benchmarks.LoadTest
+ * </pre>
+ * To compare thread models, run it once against processing started with
+ * {@code --spring.threads.virtual.enabled=true} and once with {@code false}, with the same settings.
+ * Throughput, error counts and latency percentiles per endpoint are printed and written as JSON to
+ * {@code target/load/<label>.json}.
+ * <p>
+ * Options (system properties): {@code load.url}, {@code load.user} and {@code load.password} (registered
+ * if the login fails), {@code load.concurrency}, {@code load.duration}, {@code load.warmup},
+ * {@code load.cnt} (hits per search) and {@code load.label}.
+ */
+public final class LoadTest {
+
+    private static final DateTimeFormatter LABEL_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String baseUrl;
+    private final List<String> queries = BenchmarkData.queries();
+    private final int cnt;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+
+    private LoadTest(String baseUrl, int cnt) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.cnt = cnt;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8080");
+        int concurrency = Integer.getInteger("load.concurrency", 200);
+        Duration duration = duration(System.getProperty("load.duration", "60s"));
+        Duration warmup = duration(System.getProperty("load.warmup", "15s"));
+        String label = System.getProperty("load.label", "load-" + LABEL_TIME.format(LocalDateTime.now()));
+
+        LoadTest test = new LoadTest(url, Integer.getInteger("load.cnt", 20));
+        String token = test.token(System.getProperty("load.user", "loadtest"),
+                System.getProperty("load.password", "loadtest-password"));
+
+        System.out.printf("%d clients against %s: %d s warm-up, %d s measured%n",
+                concurrency, url, warmup.toSeconds(), duration.toSeconds());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> test.run(token, end));
+            }
+            TimeUnit.NANOSECONDS.sleep(warmup.toNanos());
+            test.measuring = true;
+        }
+
+        ObjectNode report = test.report(label, concurrency, duration);
+        Path file = Path.of("target", "load", label + ".json");
+        Files.createDirectories(file.getParent());
+        test.mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file);
+    }
+
+    private void run(String token, long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() - endNanos < 0 && !Thread.currentThread().isInterrupted()) {
+            String query = queries.get(random.nextInt(queries.size()));
+            String body = "{\"query\":" + quote(query) + ",\"cnt\":" + cnt + "}";
+            JsonNode result = call("POST /products/search", HttpRequest.newBuilder(URI.create(baseUrl + "/products/search"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+            JsonNode items = result == null ? null : result.path("items");
+            if (items != null && items.size() > 0) {
+                String id = items.get(random.nextInt(items.size())).path("id").asText();
+                call("GET /products/{id}", HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+                        .header("Authorization", "Bearer " + token)
+                        .GET());
+            }
+        }
+    }
+
+    private JsonNode call(String name, HttpRequest.Builder request) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, n -> new Endpoint());
+        long started = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - started;
+            if (response.statusCode() >= 400) {
+                endpoint.record(elapsed, false, measuring);
+                return null;
+            }
+            endpoint.record(elapsed, true, measuring);
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            endpoint.record(System.nanoTime() - started, false, measuring);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String token(String user, String password) throws IOException, InterruptedException {
+        String credentials = "{\"username\":" + quote(user) + ",\"password\":" + quote(password) + "}";
+        HttpResponse<String> login = post("/auth/login", credentials);
+        if (login.statusCode() >= 400) {
+            post("/auth/register", "{\"username\":" + quote(user) + ",\"password\":" + quote(password)
+                    + ",\"email\":" + quote(user + "@example.com") + "}");
+            login = post("/auth/login", credentials);
+        }
+        if (login.statusCode() >= 400) {
+            throw new IllegalStateException("Login as " + user + " failed with " + login.statusCode());
+        }
+        return mapper.readTree(login.body()).path("token").asText();
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private ObjectNode report(String label, int concurrency, Duration duration) {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("label", label);
+        report.put("url", baseUrl);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", duration.toSeconds());
+        ObjectNode results = report.putObject("endpoints");
+
+        System.out.printf("%-22s %10s %8s %10s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Endpoint> entry : new LinkedHashMap<>(endpoints).entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            long[] latencies = endpoint.latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(latencies);
+            long requests = endpoint.ok.sum() + endpoint.errors.sum();
+            double throughput = requests / (double) duration.toSeconds();
+
+            ObjectNode result = results.putObject(entry.getKey());
+            result.put("requests", requests);
+            result.put("errors", endpoint.errors.sum());
+            result.put("throughput", throughput);
+            result.put("p50Ms", millis(percentile(latencies, 0.50)));
+            result.put("p95Ms", millis(percentile(latencies, 0.95)));
+            result.put("p99Ms", millis(percentile(latencies, 0.99)));
+            result.put("maxMs", millis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+
+            System.out.printf("%-22s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), requests,
+                    endpoint.errors.sum(), throughput, result.get("p50Ms").asDouble(), result.get("p95Ms").asDouble(),
+                    result.get("p99Ms").asDouble(), result.get("maxMs").asDouble());
+        }
+        return report;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(sorted.length * p) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private String quote(String value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Duration duration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v.endsWith("s") ? v.substring(0, v.length() - 1) : v));
+    }
+
+    private static final class Endpoint {
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        void record(long nanos, boolean success, boolean measuring) {
+            if (!measuring) {
+                return;
+            }
+            (success ? ok : errors).increment();
+            latencies.add(nanos);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.MarketPlace.benchmarks;
+
+import com.dto.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.service.ProductCache;
+import com.service.SearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SearchService#getProductById} on a product cache miss: the row mapping and the handling of
+ * {@code raw_data} ({@code products.raw-json-passthrough}), followed by writing the product as the
+ * controller does. JDBC is replaced by an in-memory row, so only the mapping and JSON work are measured;
+ * run with {@code -prof gc} for allocation per product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductLoadBenchmark {
+
+    private static final UUID PRODUCT_ID = UUID.fromString("6f1c2a52-8d0e-4c3b-9a57-3e0f2b7d9c11");
+    private static final String NAME = "Видеокарта MSI GeForce RTX 4070 SUPER VENTUS 2X OC 12 ГБ";
+
+    @Param({"true", "false"})
+    public boolean rawJsonPassthrough;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private SearchService searchService;
+
+    @Setup
+    public void setUp() {
+        ResultSet row = productRow(BenchmarkData.rawData());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> T queryForObject(String sql, Object[] args, RowMapper<T> rowMapper) {
+                try {
+                    return rowMapper.mapRow(row, 0);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        // Entries expire as soon as they are written, so every call maps the row again
+        ProductCache productCache = new ProductCache(1, Duration.ZERO, new SimpleMeterRegistry());
+        searchService = new SearchService(null, jdbcTemplate, productCache, null, mapper, rawJsonPassthrough);
+    }
+
+    @Benchmark
+    public Product getProductById() {
+        return searchService.getProductById(PRODUCT_ID);
+    }
+
+    @Benchmark
+    public byte[] getProductByIdAndWrite() throws Exception {
+        return mapper.writeValueAsBytes(searchService.getProductById(PRODUCT_ID));
+    }
+
+    private static ResultSet productRow(String rawData) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getObject" -> PRODUCT_ID;
+                    case "getString" -> "name".equals(args[0]) ? NAME : rawData;
+                    case "wasNull" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
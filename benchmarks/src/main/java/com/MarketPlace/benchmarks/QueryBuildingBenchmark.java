@@ -0,0 +1,84 @@
+package com.MarketPlace.benchmarks;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.MarketPlace.SearchEngineES.QueryStrategy;
+import com.MarketPlace.SearchEngineES.SearchFacets;
+import com.MarketPlace.SearchEngineES.SearchQueries;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import jakarta.json.stream.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the request {@code ElasticsearchClientDocker.search} sends for one query, and serializes it to
+ * the JSON that goes over the wire, per {@link QueryStrategy}. No cluster is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBuildingBenchmark {
+
+    @Param({"LEGACY", "EXACT_THEN_FUZZY", "BOUNDED_FUZZY"})
+    public QueryStrategy strategy;
+
+    @Param({"видеокарта", "игровой ноутбук lenovo 16 гб 512 гб"})
+    public String query;
+
+    @Param({"false", "true"})
+    public boolean filtersAndFacets;
+
+    private final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+    private DtoQuery dtoQuery;
+
+    @Setup
+    public void setUp() {
+        dtoQuery = filtersAndFacets
+                ? new DtoQuery(query, 20, null, strategy, List.of("Ноутбуки", "Видеокарты"), 10_000.0, 150_000.0, true)
+                : new DtoQuery(query, 20);
+    }
+
+    @Benchmark
+    public Query build() {
+        return SearchQueries.filtered(SearchQueries.singlePass(strategy, dtoQuery.query()), dtoQuery);
+    }
+
+    @Benchmark
+    public String buildAndSerialize() {
+        Query built = SearchQueries.filtered(SearchQueries.singlePass(strategy, dtoQuery.query()), dtoQuery);
+        SearchRequest request = SearchRequest.of(s -> {
+            s.index("search-documents")
+                    .from(0)
+                    .size(dtoQuery.cnt())
+                    .trackTotalHits(t -> t.enabled(false))
+                    .query(built);
+            if (dtoQuery.wantsFacets()) {
+                s.aggregations(SearchFacets.aggregations());
+            }
+            return s;
+        });
+
+        StringWriter json = new StringWriter(1024);
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(json)) {
+            request.serialize(generator, mapper);
+        }
+        return json.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.MarketPlace.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON reports, benchmark by benchmark and parameter set by parameter set:
+ * <pre>
+ * java -cp benchmarks.jar com.MarketPlace.benchmarks.ReportDiff target/jmh/before.json target/jmh/after.json
+ * </pre>
+ * The change is relative to the first report. Whether higher is better depends on the mode: for average
+ * time a negative change is an improvement, for throughput a positive one.
+ */
+public final class ReportDiff {
+
+    private ReportDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ReportDiff <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> candidate = index(mapper.readTree(new File(args[1])));
+
+        System.out.printf("%-90s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Candidate", "Change", "Unit");
+        for (Map.Entry<String, JsonNode> entry : baseline.entrySet()) {
+            JsonNode before = entry.getValue().path("primaryMetric");
+            JsonNode afterResult = candidate.get(entry.getKey());
+            if (afterResult == null) {
+                System.out.printf("%-90s %14.3f %14s %9s  %s%n", entry.getKey(), before.path("score").asDouble(),
+                        "-", "-", before.path("scoreUnit").asText());
+                continue;
+            }
+            JsonNode after = afterResult.path("primaryMetric");
+            double from = before.path("score").asDouble();
+            double to = after.path("score").asDouble();
+            String change = from == 0 ? "-" : String.format("%+.1f%%", (to - from) / from * 100);
+            System.out.printf("%-90s %14.3f %14.3f %9s  %s%n", entry.getKey(), from, to, change,
+                    after.path("scoreUnit").asText());
+        }
+        for (String key : candidate.keySet()) {
+            if (!baseline.containsKey(key)) {
+                JsonNode after = candidate.get(key).path("primaryMetric");
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", key, "-", after.path("score").asDouble(), "new",
+                        after.path("scoreUnit").asText());
+            }
+        }
+    }
+
+    /**
+     * Results keyed by benchmark name, mode and parameters, e.g.
+     * {@code JwtBenchmark.generate avgt embedRoles=true}.
+     */
+    private static Map<String, JsonNode> index(JsonNode report) {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : report) {
+            String name = result.path("benchmark").asText();
+            StringBuilder key = new StringBuilder(name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1))
+                    .append(' ').append(result.path("mode").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
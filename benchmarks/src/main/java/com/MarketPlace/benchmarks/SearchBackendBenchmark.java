@@ -0,0 +1,151 @@
+package com.MarketPlace.benchmarks;
+
+import com.MarketPlace.SearchEngineES.BulkIndexer;
+import com.MarketPlace.SearchEngineES.ElasticsearchClientDocker;
+import com.MarketPlace.SearchEngineES.ElasticsearchSearchBackend;
+import com.MarketPlace.SearchEngineES.LuceneSearchBackend;
+import com.MarketPlace.SearchEngineES.QueryStrategy;
+import com.MarketPlace.SearchEngineES.SearchBackend;
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.DocumentScore;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@code /search/ids} over the captured query set, per backend and {@link QueryStrategy}, on
+ * the synthetic catalog. Each invocation runs the next query of the set.
+ * <p>
+ * Recall is reported next to the timings as the {@code overlap} and {@code expected} counters: the top
+ * hits of the strategy that also appear in the top hits of {@link QueryStrategy#LEGACY} (today's query),
+ * so recall@k is {@code overlap / expected}.
+ * <p>
+ * Only the embedded Lucene backend runs by default. To compare it with Elasticsearch, start the cluster
+ * from {@code docker-compose.yml} without a {@code search-documents} index (it is created and loaded with
+ * the same catalog) and add {@code -p backend=lucene,elasticsearch}; use {@code -t} for throughput under
+ * concurrency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBackendBenchmark {
+
+    private static final int HITS = 20;
+
+    @Param({"lucene"})
+    public String backend;
+
+    @Param({"LEGACY", "EXACT_THEN_FUZZY", "BOUNDED_FUZZY"})
+    public QueryStrategy strategy;
+
+    @Param({"20000"})
+    public int documents;
+
+    private SearchBackend searchBackend;
+    private ElasticsearchClientDocker esClient;
+    private List<DtoQuery> queries;
+    private List<Set<String>> legacyHits;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("elasticsearch".equals(backend)) {
+            esClient = new ElasticsearchClientDocker();
+            searchBackend = new ElasticsearchSearchBackend(esClient, BulkIndexer.Settings.defaults(), 0, "1s", "1m");
+        } else {
+            // The rules bundled with the search jar, unless -Dbench.synonyms points at another file
+            String synonyms = System.getProperty("bench.synonyms");
+            searchBackend = new LuceneSearchBackend("", synonyms == null
+                    ? new ClassPathResource("analysis/synonyms.txt")
+                    : new FileSystemResource(Path.of(synonyms)), 64);
+        }
+
+        SearchBackend.CatalogLoad load = searchBackend.beginCatalogLoad();
+        if (load != null) {
+            for (Document document : BenchmarkData.documents(documents)) {
+                load.add(document);
+            }
+            load.commit();
+        }
+
+        queries = new ArrayList<>();
+        legacyHits = new ArrayList<>();
+        for (String query : BenchmarkData.queries()) {
+            DtoQuery dtoQuery = new DtoQuery(query, HITS);
+            queries.add(dtoQuery);
+            legacyHits.add(ids(searchBackend.searchIds(dtoQuery, QueryStrategy.LEGACY)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (searchBackend instanceof LuceneSearchBackend lucene) {
+            lucene.close();
+        }
+        if (esClient != null) {
+            esClient.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Recall {
+        public long overlap;
+        public long expected;
+    }
+
+    @Benchmark
+    public IdSearchResponse searchIds(Cursor cursor, Recall recall) throws IOException {
+        int i = cursor.next;
+        cursor.next = (i + 1) % queries.size();
+
+        IdSearchResponse response = searchBackend.searchIds(queries.get(i), strategy);
+
+        Set<String> expected = legacyHits.get(i);
+        recall.expected += expected.size();
+        for (DocumentScore hit : response.hits()) {
+            if (expected.contains(hit.id())) {
+                recall.overlap++;
+            }
+        }
+        return response;
+    }
+
+    private static Set<String> ids(IdSearchResponse response) {
+        Set<String> ids = new HashSet<>();
+        for (DocumentScore hit : response.hits()) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+}
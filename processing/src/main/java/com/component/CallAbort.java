@@ -0,0 +1,57 @@
+package com.component;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Lets {@link SearchServiceClient} abort a search call that is running on another thread, e.g. the
+ * losing side of a hedged request. The request factory registers every outgoing HTTP request with the
+ * handle bound to the calling thread; aborting the handle cancels that request, which closes its
+ * connection instead of returning it to the pool, so neither the connection nor the replica's
+ * outstanding slot stays taken until the response arrives.
+ */
+public final class CallAbort {
+
+    private static final ThreadLocal<CallAbort> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReference<Cancellable> request = new AtomicReference<>();
+    private volatile boolean aborted;
+
+    <T> T run(Supplier<T> call) {
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    void abort() {
+        aborted = true;
+        Cancellable current = request.get();
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Called by the request factory for each request it creates; a no-op outside {@link #run}.
+     */
+    public static void register(Cancellable httpRequest) {
+        CallAbort handle = CURRENT.get();
+        if (handle == null) {
+            return;
+        }
+        handle.request.set(httpRequest);
+        // abort() may have run before the request existed
+        if (handle.aborted) {
+            httpRequest.cancel();
+        }
+    }
+}
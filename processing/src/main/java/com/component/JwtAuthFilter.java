@@ -5,7 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -34,20 +36,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String header = request.getHeader("Authorization");
         String token = null;
-        String username = null;
+        JwtService.VerifiedToken verified = null;
 
         if (header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
-            if (jwtService.isValid(token)) {
-                username = jwtService.getUsername(token);
-            }
+            verified = jwtService.verify(token).orElse(null);
         }
 
-        if (username != null &&
+        if (verified != null && verified.username() != null &&
                 SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = verified.roles() != null
+                    ? User.withUsername(verified.username())
+                            .password("")
+                            .authorities(verified.roles().stream()
+                                    .map(SimpleGrantedAuthority::new)
+                                    .toList())
+                            .build()
+                    : userDetailsService.loadUserByUsername(verified.username());
 
             UsernamePasswordAuthenticationToken auth =
                     new UsernamePasswordAuthenticationToken(
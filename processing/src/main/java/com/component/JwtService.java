@@ -1,54 +1,168 @@
 package com.component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtService {
 
+    private static final String ROLES_CLAIM = "roles";
+
     private final Key key;
     private final long expirationMs;
+    private final boolean embedRoles;
+    private final JwtParser parser;
+
+    /**
+     * Recently verified tokens keyed by SHA-256 of the token; each entry lives until the token's {@code exp}.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
     public JwtService(@Value("${jwt.secret}") String secret,
-                      @Value("${jwt.expiration-ms}") long expirationMs) {
+                      @Value("${jwt.expiration-ms}") long expirationMs,
+                      @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+                      @Value("${jwt.embed-roles:false}") boolean embedRoles) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationMs = expirationMs;
+        this.embedRoles = embedRoles;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
     }
 
     public String generateToken(String username) {
+        return generateToken(username, List.of());
+    }
+
+    /**
+     * With {@code jwt.embed-roles} enabled the roles are written into a {@code roles} claim, so the
+     * filter can build the principal without touching the database.
+     */
+    public String generateToken(String username, Collection<String> roles) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + expirationMs);
 
-        return Jwts.builder()
+        var builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(now)
-                .setExpiration(exp)
+                .setExpiration(exp);
+
+        if (embedRoles && !roles.isEmpty()) {
+            builder.claim(ROLES_CLAIM, new ArrayList<>(roles));
+        }
+
+        return builder
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Validates the token and extracts its subject in one pass. Tokens seen before are served from the
+     * cache without re-verifying the signature.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String cacheKey = hash(token);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                embedRoles ? rolesOf(claims) : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+
+        if (verified.expiresAt() != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return Optional.of(verified);
+    }
+
     public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean isValid(String token) {
+        return verify(token).isPresent();
+    }
+
+    private static List<String> rolesOf(Claims claims) {
+        Object value = claims.get(ROLES_CLAIM);
+        if (!(value instanceof Collection<?> collection)) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>(collection.size());
+        for (Object role : collection) {
+            roles.add(String.valueOf(role));
+        }
+        return List.copyOf(roles);
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * {@code roles} is null unless roles are embedded in the token.
+     */
+    public record VerifiedToken(String username, List<String> roles, Instant expiresAt) {
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration left = Duration.between(Instant.now(), value.expiresAt());
+            return left.isNegative() ? 0 : left.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
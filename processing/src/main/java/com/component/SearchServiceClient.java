@@ -0,0 +1,394 @@
+package com.component;
+
+import com.dto.DtoQuery;
+import com.dto.SearchDocument;
+import com.dto.SearchHitRef;
+import com.dto.SearchIdsResponse;
+import com.dto.SearchResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Calls the search service across all configured replicas.
+ * <ul>
+ *     <li>each call goes to the healthy replica with the fewest outstanding requests;</li>
+ *     <li>a replica that fails {@code failure-threshold} times in a row is ejected for {@code eject-for},
+ *     then gets traffic again;</li>
+ *     <li>with hedging on, a call still running after the hedge delay (fixed, or the observed p95) is
+ *     duplicated to another replica and the first successful answer wins; the other call is aborted.
+ *     With the p95 delay, nothing is hedged until enough latencies have been observed.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SearchServiceClient {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final RestTemplate restTemplate;
+    private final List<Endpoint> endpoints;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final LatencyTracker latencies = new LatencyTracker(1024);
+    private final ExecutorService executor;
+
+    private final boolean leanResponse;
+    private final boolean binaryEncoding;
+    private final boolean hedgingEnabled;
+    private final long hedgeDelayNanos;
+    private final long minHedgeDelayNanos;
+    private final int failureThreshold;
+    private final long ejectForNanos;
+
+    public SearchServiceClient(RestTemplate restTemplate,
+                               @Value("${search-service.urls:${search-service.url:http://localhost:8085}}") List<String> urls,
+                               @Value("${search-service.lean-response:true}") boolean leanResponse,
+                               @Value("${search-service.binary-encoding:true}") boolean binaryEncoding,
+                               @Value("${search-service.hedging.enabled:false}") boolean hedgingEnabled,
+                               @Value("${search-service.hedging.delay:0ms}") Duration hedgeDelay,
+                               @Value("${search-service.hedging.min-delay:10ms}") Duration minHedgeDelay,
+                               @Value("${search-service.balancer.failure-threshold:3}") int failureThreshold,
+                               @Value("${search-service.balancer.eject-for:30s}") Duration ejectFor,
+                               @Value("${search-service.hedging.max-threads:64}") int maxHedgingThreads,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.restTemplate = restTemplate;
+        this.endpoints = urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(Endpoint::new)
+                .toList();
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("search-service.urls must contain at least one endpoint");
+        }
+        this.leanResponse = leanResponse;
+        this.binaryEncoding = binaryEncoding;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgeDelayNanos = hedgeDelay.toNanos();
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.ejectForNanos = ejectFor.toNanos();
+
+        // Without virtual threads the pool is bounded; when it is full, calls run unhedged on the caller
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-client-", 0).factory())
+                : new ThreadPoolExecutor(0, maxHedgingThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                        Thread.ofPlatform().name("search-client-", 0).daemon().factory());
+    }
+
+    /**
+     * Ordered hit ids for the query, from the lean {@code /search/ids} endpoint or from full documents.
+     * Facets are only available through the lean endpoint.
+     */
+    public SearchResult search(DtoQuery dtoQuery) {
+        return execute(url -> leanResponse
+                ? fetchLeanHitIds(url, dtoQuery)
+                : new SearchResult(fetchHitIds(url, dtoQuery), null));
+    }
+
+    /**
+     * One page of hits from {@code /search/page}. Always goes through the lean endpoint, since only it
+     * returns a cursor; the cursor is opaque here and handed back to the caller as-is.
+     */
+    public SearchIdsResponse searchPage(DtoQuery dtoQuery) {
+        return execute(url -> postLean(url + "/search/page", dtoQuery, SearchIdsResponse.class));
+    }
+
+    private List<UUID> fetchHitIds(String url, DtoQuery dtoQuery) {
+        ResponseEntity<SearchDocument[]> response =
+                restTemplate.postForEntity(
+                        url + "/search",
+                        dtoQuery,
+                        SearchDocument[].class
+                );
+
+        SearchDocument[] documents = response.getBody();
+
+        List<UUID> ids = new ArrayList<>();
+        if (documents != null) {
+            for (SearchDocument document : documents) {
+                ids.add(UUID.fromString(document.getId()));
+            }
+        }
+        return ids;
+    }
+
+    private SearchResult fetchLeanHitIds(String url, DtoQuery dtoQuery) {
+        SearchIdsResponse body = postLean(url + "/search/ids", dtoQuery, SearchIdsResponse.class);
+
+        List<UUID> ids = new ArrayList<>();
+        if (body != null && body.hits() != null) {
+            for (SearchHitRef hit : body.hits()) {
+                ids.add(UUID.fromString(hit.id()));
+            }
+        }
+        return body == null ? new SearchResult(ids, null) : new SearchResult(ids, body.facets(), body.generation());
+    }
+
+    /**
+     * POST in Smile when binary encoding is enabled, JSON otherwise.
+     */
+    private <T> T postLean(String url, Object body, Class<T> responseType) {
+        MediaType mediaType = binaryEncoding ? SMILE : MediaType.APPLICATION_JSON;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setAccept(List.of(mediaType));
+
+        ResponseEntity<T> response =
+                restTemplate.exchange(
+                        url,
+                        HttpMethod.POST,
+                        new HttpEntity<>(body, headers),
+                        responseType
+                );
+        return response.getBody();
+    }
+
+    private <T> T execute(Function<String, T> call) {
+        Endpoint primary = choose(null);
+        long hedgeDelay = hedgeDelayNanos();
+
+        InFlight<T> first = null;
+        if (hedgingEnabled && endpoints.size() >= 2 && hedgeDelay > 0) {
+            first = start(primary, call);
+        }
+        if (first == null) {
+            try {
+                return invoke(primary, call);
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                Endpoint fallback = choose(primary);
+                if (fallback == null) {
+                    throw e;
+                }
+                log.warn("Search call to {} failed, retrying on {}", primary.url, fallback.url);
+                return invoke(fallback, call);
+            }
+        }
+
+        try {
+            return first.future().get(hedgeDelay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // fall through to the hedged request
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof ResourceAccessException || e.getCause() instanceof HttpServerErrorException)) {
+                throw unwrap(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the search service", e);
+        }
+
+        Endpoint secondary = choose(primary);
+        InFlight<T> second = secondary == null ? null : start(secondary, call);
+        if (second == null) {
+            return join(first.future());
+        }
+        return join(firstSuccessful(first, second));
+    }
+
+    /**
+     * Runs the call on the executor; null if the bounded platform pool has no free thread.
+     */
+    private <T> InFlight<T> start(Endpoint endpoint, Function<String, T> call) {
+        CallAbort abort = new CallAbort();
+        try {
+            return new InFlight<>(CompletableFuture.supplyAsync(() -> abort.run(() -> invoke(endpoint, call, abort)), executor),
+                    abort);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private <T> T invoke(Endpoint endpoint, Function<String, T> call) {
+        return invoke(endpoint, call, null);
+    }
+
+    private <T> T invoke(Endpoint endpoint, Function<String, T> call, CallAbort abort) {
+        endpoint.outstanding.incrementAndGet();
+        long started = System.nanoTime();
+        try {
+            T result = call.apply(endpoint.url);
+            latencies.record(System.nanoTime() - started);
+            endpoint.consecutiveFailures.set(0);
+            return result;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            // An aborted hedge says nothing about the replica's health
+            if (abort == null || !abort.isAborted()) {
+                onFailure(endpoint);
+            }
+            throw e;
+        } finally {
+            endpoint.outstanding.decrementAndGet();
+        }
+    }
+
+    private void onFailure(Endpoint endpoint) {
+        if (endpoint.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            endpoint.consecutiveFailures.set(0);
+            endpoint.ejectedUntil = System.nanoTime() + ejectForNanos;
+            log.warn("Ejecting search endpoint {} for {} ms", endpoint.url, TimeUnit.NANOSECONDS.toMillis(ejectForNanos));
+        }
+    }
+
+    /**
+     * Least outstanding requests among healthy endpoints, starting at a rotating offset so ties spread.
+     * If every endpoint is ejected, the one that comes back first is used rather than failing outright.
+     */
+    private Endpoint choose(Endpoint exclude) {
+        long now = System.nanoTime();
+        int size = endpoints.size();
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), size);
+
+        Endpoint best = null;
+        Endpoint soonestBack = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((offset + i) % size);
+            if (candidate == exclude) {
+                continue;
+            }
+            if (now - candidate.ejectedUntil >= 0) {
+                if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                    best = candidate;
+                }
+            } else if (soonestBack == null || candidate.ejectedUntil - soonestBack.ejectedUntil < 0) {
+                soonestBack = candidate;
+            }
+        }
+        return best != null ? best : soonestBack;
+    }
+
+    /**
+     * 0 while the p95 is still unknown, which turns hedging off: a cold cluster would otherwise get
+     * every call twice after {@code min-delay}.
+     */
+    private long hedgeDelayNanos() {
+        if (hedgeDelayNanos > 0) {
+            return hedgeDelayNanos;
+        }
+        long p95 = latencies.p95();
+        return p95 == 0 ? 0 : Math.max(minHedgeDelayNanos, p95);
+    }
+
+    /**
+     * Completes with the first successful result and aborts the other call, or fails once both have failed.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(InFlight<T> first, InFlight<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (InFlight<T> candidate : List.of(first, second)) {
+            InFlight<T> other = candidate == first ? second : first;
+            candidate.future().whenComplete((value, error) -> {
+                if (error == null) {
+                    if (winner.complete(value)) {
+                        other.abort().abort();
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof RuntimeException re ? re : new RestClientException("Search call failed", error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record InFlight<T>(CompletableFuture<T> future, CallAbort abort) {
+    }
+
+    private static final class Endpoint {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntil = System.nanoTime();
+
+        private Endpoint(String url) {
+            this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        }
+    }
+
+    /**
+     * Ring buffer of recent call latencies. The p95 is first computed once {@code MIN_SAMPLES} calls have
+     * been recorded and then every 64 samples; until then it is 0.
+     */
+    private static final class LatencyTracker {
+        private static final int MIN_SAMPLES = 100;
+
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+        private volatile long p95;
+
+        private LatencyTracker(int capacity) {
+            this.samples = new AtomicLongArray(capacity);
+        }
+
+        void record(long nanos) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % samples.length()), nanos);
+            if (n + 1 == MIN_SAMPLES || (n >= MIN_SAMPLES && n % 64 == 0)) {
+                recompute(n + 1);
+            }
+        }
+
+        long p95() {
+            return p95;
+        }
+
+        private void recompute(long recorded) {
+            int size = (int) Math.min(recorded, samples.length());
+            long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = samples.get(i);
+            }
+            Arrays.sort(copy);
+            p95 = copy[(int) Math.ceil(size * 0.95) - 1];
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the scheduled outbox relay when catalog sync to the search service is enabled.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "catalog.sync.enabled", havingValue = "true")
+public class CatalogSyncConfig {
+}
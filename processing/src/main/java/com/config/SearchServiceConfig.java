@@ -1,14 +1,82 @@
 package com.config;
 
+import com.component.CallAbort;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class SearchServiceConfig {
-    
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager searchConnectionManager(
+            @Value("${search-service.pool.max-total:200}") int maxTotal,
+            @Value("${search-service.pool.max-per-route:100}") int maxPerRoute,
+            @Value("${search-service.pool.time-to-live:5m}") Duration timeToLive,
+            @Value("${search-service.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${search-service.read-timeout:3s}") Duration readTimeout) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLive.toMillis()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(PoolingHttpClientConnectionManager searchConnectionManager,
+                                     @Value("${search-service.keep-alive:30s}") Duration keepAlive,
+                                     @Value("${search-service.pool.acquire-timeout:500ms}") Duration acquireTimeout,
+                                     @Value("${search-service.read-timeout:3s}") Duration readTimeout) {
+        TimeValue keepAliveValue = TimeValue.ofMilliseconds(keepAlive.toMillis());
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(searchConnectionManager)
+                .setKeepAliveStrategy((response, context) -> keepAliveValue)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveValue)
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient) {
+            @Override
+            protected void postProcessHttpRequest(ClassicHttpRequest request) {
+                // Lets SearchServiceClient abort the losing side of a hedged call
+                if (request instanceof Cancellable cancellable) {
+                    CallAbort.register(cancellable);
+                }
+            }
+        };
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Publishes httpcomponents.httpclient.pool.* gauges: leased, available and pending connections.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterBinder searchConnectionPoolMetrics(PoolingHttpClientConnectionManager searchConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(searchConnectionManager, "search-service");
     }
-}
\ No newline at end of file
+}
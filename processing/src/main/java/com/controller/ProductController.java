@@ -3,21 +3,42 @@ package com.controller;
 import com.dto.DtoQuery;
 import com.dto.Product;
 import com.dto.ProductSearchResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.service.SearchService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
     private final SearchService searchService;
+    private final ObjectWriter productWriter;
+    private final int streamChunkSize;
 
-    public ProductController(SearchService searchService) {
+    public ProductController(SearchService searchService,
+                             ObjectMapper mapper,
+                             @Value("${products.stream.chunk-size:20}") int streamChunkSize) {
         this.searchService = searchService;
+        this.productWriter = mapper.writerFor(Product.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.streamChunkSize = streamChunkSize;
     }
 
     @PostMapping("/search")
@@ -27,10 +48,50 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Cursor-based paging for deep result sets: omit {@code cursor} for the first page, then pass the
+     * returned {@code nextCursor} until it is absent. Every page costs the same regardless of depth.
+     */
+    @PostMapping("/search/page")
+    public ResponseEntity<ProductSearchResponse> searchProductsPage(@RequestBody DtoQuery dtoQuery) {
+        return ResponseEntity.ok(searchService.searchProductsPage(dtoQuery));
+    }
+
+    /**
+     * Same search as {@link #searchProducts}, written as one JSON product per line. Products are
+     * hydrated and flushed chunk by chunk, so only one chunk is held in memory and writing stops as
+     * soon as the client goes away.
+     */
+    @PostMapping(value = "/search/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestBody(required = false) DtoQuery dtoQuery) {
+        List<UUID> ids = searchService.searchProductIds(dtoQuery);
+
+        StreamingResponseBody body = out -> writeProducts(ids, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeProducts(List<UUID> ids, OutputStream out) throws IOException {
+        for (int from = 0; from < ids.size(); from += streamChunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + streamChunkSize));
+            for (Product product : searchService.getProductsByIds(chunk)) {
+                productWriter.writeValue(out, product);
+                out.write('\n');
+            }
+            // A disconnected client makes flush throw, which ends the loop
+            out.flush();
+        }
+    }
+
+    @DeleteMapping("/search/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> clearSearchCache() {
+        searchService.clearSearchCache();
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable  java.util.UUID id) {
         Product product = searchService.getProductById(id);
         return ResponseEntity.ok(product);
     }
-
 }
\ No newline at end of file
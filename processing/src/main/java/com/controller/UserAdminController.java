@@ -0,0 +1,32 @@
+package com.controller;
+
+import com.dto.BulkRegisterResponse;
+import com.service.UserProvisioningService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/admin/users")
+public class UserAdminController {
+
+    private final UserProvisioningService provisioningService;
+
+    public UserAdminController(UserProvisioningService provisioningService) {
+        this.provisioningService = provisioningService;
+    }
+
+    /**
+     * Body is a JSON array of {@code {"username", "password", "email"}} objects, read as a stream.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkRegisterResponse> registerAll(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(provisioningService.registerAll(request.getInputStream()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.dto;
+
+import java.util.List;
+
+/**
+ * Totals for a bulk registration; {@code rejected} lists only the rows that were not created.
+ */
+public record BulkRegisterResponse(int total, int created, int duplicates, int invalid,
+                                   List<BulkRegisterResult> rejected) {
+}
@@ -0,0 +1,10 @@
+package com.dto;
+
+public record BulkRegisterResult(int row, String username, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+}
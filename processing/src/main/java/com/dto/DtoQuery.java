@@ -4,8 +4,11 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Builder;
 
+import java.util.List;
+
 @Valid
 public record DtoQuery(
         @NotBlank
@@ -13,6 +16,26 @@ public record DtoQuery(
 
         @Min(1)
         @NotNull
-        Integer cnt
+        Integer cnt,
+
+        String cursor,
+
+        // LEGACY, EXACT_THEN_FUZZY or BOUNDED_FUZZY; null uses the search service default
+        String strategy,
+
+        // Only products carrying any of these tags
+        List<String> tags,
+
+        @PositiveOrZero
+        Double minPrice,
+
+        @PositiveOrZero
+        Double maxPrice,
+
+        // Return tag and price facet counts alongside the items
+        Boolean facets
 ) {
-}
\ No newline at end of file
+    public DtoQuery(String query, Integer cnt) {
+        this(query, cnt, null, null, null, null, null, null);
+    }
+}
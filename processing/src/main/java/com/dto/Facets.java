@@ -0,0 +1,15 @@
+package com.dto;
+
+import java.util.List;
+
+/**
+ * Tag and price facet counts as computed by the search service for the whole match set.
+ */
+public record Facets(List<TagCount> tags, List<PriceRange> prices) {
+
+    public record TagCount(String tag, long count) {
+    }
+
+    public record PriceRange(double from, double to, long count) {
+    }
+}
@@ -1,17 +1,32 @@
 package com.dto;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Product row. {@code dataRow} can be backed by the raw jsonb text from Postgres: it is written to the
+ * response as-is and only parsed into a tree when {@link #getDataRow()} is called.
+ */
 @Data
+@JsonAutoDetect(getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE,
+        fieldVisibility = JsonAutoDetect.Visibility.NONE)
 public class Product {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private UUID id;
 
     private String name;
@@ -22,20 +37,48 @@ public class Product {
         this.dataRow = dataRow;
     }
 
-    private JsonNode dataRow;
+    private volatile JsonNode dataRow;
 
+    @Setter(AccessLevel.NONE)
+    private String rawJson;
 
+    public static Product fromRawJson(UUID id, String name, String rawJson) {
+        Product product = new Product(id, name, null);
+        product.rawJson = rawJson;
+        return product;
+    }
 
+    @JsonProperty("id")
     public UUID getId() {
         return id;
     }
 
+    @JsonProperty("name")
     public String getName() {
         return name;
     }
 
     public JsonNode getDataRow() {
-        return dataRow;
+        JsonNode node = dataRow;
+        if (node == null && rawJson != null) {
+            try {
+                node = MAPPER.readTree(rawJson);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+            dataRow = node;
+        }
+        return node;
+    }
+
+    public void setDataRow(JsonNode dataRow) {
+        this.dataRow = dataRow;
+        this.rawJson = null;
+    }
+
+    @JsonProperty("dataRow")
+    private Object dataRowForJson() {
+        return rawJson != null ? new RawValue(rawJson) : dataRow;
     }
 
 
@@ -0,0 +1,19 @@
+package com.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.util.UUID;
+
+/**
+ * One row of the product outbox as published to Kafka. {@code version} is the outbox id: it only grows,
+ * so consumers can drop anything older than what they have already applied.
+ *
+ * @param op   {@code UPSERT} or {@code DELETE}
+ * @param data the product's {@code raw_data}, passed through as-is; null for deletes
+ */
+public record ProductChangeEvent(long version,
+                                 UUID productId,
+                                 String op,
+                                 String name,
+                                 @JsonRawValue String data) {
+}
@@ -1,13 +1,25 @@
 package com.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.List;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductSearchResponse {
     private List<Product> items;
 
+    /**
+     * Set by paged searches only; absent on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Present only when the query asked for facets.
+     */
+    private Facets facets;
+
     public void setItems(List<Product> items) {
         this.items = items;
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ public class SearchDocument {
     private String text;
     private String name;
     private String[] tags;
+    private Double price;
     
     // Конструкторы
     public SearchDocument() {}
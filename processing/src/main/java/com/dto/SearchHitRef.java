@@ -0,0 +1,4 @@
+package com.dto;
+
+public record SearchHitRef(String id, Double score) {
+}
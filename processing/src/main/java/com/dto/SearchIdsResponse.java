@@ -0,0 +1,10 @@
+package com.dto;
+
+import java.util.List;
+
+/**
+ * {@code generation} identifies the search index contents the hits came from; it is only reported by
+ * {@code /search/ids}, and only by the Elasticsearch backend.
+ */
+public record SearchIdsResponse(List<SearchHitRef> hits, String nextCursor, Facets facets, String generation) {
+}
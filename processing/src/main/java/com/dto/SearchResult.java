@@ -0,0 +1,19 @@
+package com.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ordered hit ids for a query, with facets when the query asked for them, and the search index generation
+ * they were read from when the search service reports one.
+ */
+public record SearchResult(List<UUID> ids, Facets facets, String generation) {
+
+    public SearchResult {
+        ids = List.copyOf(ids);
+    }
+
+    public SearchResult(List<UUID> ids, Facets facets) {
+        this(ids, facets, null);
+    }
+}
@@ -0,0 +1,107 @@
+package com.repository;
+
+import com.dto.ProductChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Transactional outbox for {@code products}. A row trigger records every insert, real update and delete
+ * in {@code product_outbox} inside the writing transaction, so every import path (batch upserts, the
+ * COPY pipeline merge, manual SQL) is captured without touching it.
+ */
+@Repository
+public class ProductOutboxDao {
+
+    // Advisory lock key held by the relay that currently publishes; arbitrary but fixed
+    private static final long RELAY_LOCK = 0x70726f647563746fL;
+
+    private final JdbcTemplate jdbc;
+
+    public ProductOutboxDao(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Creates the outbox table, the capture function and the trigger if they are missing.
+     */
+    public void ensureSchema() {
+        jdbc.execute("""
+        CREATE TABLE IF NOT EXISTS product_outbox (
+            id bigserial PRIMARY KEY,
+            product_id uuid NOT NULL,
+            op text NOT NULL,
+            name text,
+            raw_data jsonb,
+            created_at timestamptz NOT NULL DEFAULT now()
+        )
+        """);
+        jdbc.execute("""
+        CREATE OR REPLACE FUNCTION products_outbox_capture() RETURNS trigger AS $$
+        BEGIN
+            IF TG_OP = 'DELETE' THEN
+                INSERT INTO product_outbox (product_id, op) VALUES (OLD.id, 'DELETE');
+                RETURN NULL;
+            END IF;
+            -- content_hash backfills and no-op rewrites don't concern the search index
+            IF TG_OP = 'UPDATE'
+               AND OLD.name IS NOT DISTINCT FROM NEW.name
+               AND OLD.raw_data IS NOT DISTINCT FROM NEW.raw_data THEN
+                RETURN NULL;
+            END IF;
+            INSERT INTO product_outbox (product_id, op, name, raw_data) VALUES (NEW.id, 'UPSERT', NEW.name, NEW.raw_data);
+            RETURN NULL;
+        END;
+        $$ LANGUAGE plpgsql
+        """);
+        // Created only if missing: dropping and recreating would leave a window where writes go unrecorded
+        jdbc.execute("""
+        DO $$
+        BEGIN
+            IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                           WHERE tgname = 'products_outbox' AND tgrelid = 'products'::regclass) THEN
+                CREATE TRIGGER products_outbox
+                AFTER INSERT OR UPDATE OR DELETE ON products
+                FOR EACH ROW EXECUTE FUNCTION products_outbox_capture();
+            END IF;
+        END
+        $$
+        """);
+    }
+
+    /**
+     * Locks the oldest unpublished entries. Must run inside a transaction. Only one relay claims at a
+     * time: while another instance holds the relay lock this returns nothing, because publishing later
+     * entries alongside it could put a product's changes on the topic out of order.
+     */
+    public List<ProductChangeEvent> claim(int limit) {
+        Boolean locked = jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return List.of();
+        }
+
+        String sql = """
+        SELECT id, product_id, op, name, raw_data::text AS raw_data
+        FROM product_outbox
+        ORDER BY id
+        LIMIT ?
+        FOR UPDATE
+        """;
+        return jdbc.query(sql, (rs, rowNum) -> new ProductChangeEvent(
+                rs.getLong("id"),
+                rs.getObject("product_id", UUID.class),
+                rs.getString("op"),
+                rs.getString("name"),
+                rs.getString("raw_data")
+        ), limit);
+    }
+
+    public void delete(List<Long> ids) {
+        jdbc.update(
+                "DELETE FROM product_outbox WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("int8", ids.toArray()))
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.repository;
+
+/**
+ * Published by {@link UserDao} whenever a user row or its roles change.
+ */
+public record UserChangedEvent(String username) {
+}
@@ -1,14 +1,20 @@
 package com.repository;
 
 import com.dto.User;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -16,9 +22,11 @@ import java.util.Set;
 public class UserDao {
 
     private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
 
-    public UserDao(JdbcTemplate jdbc) {
+    public UserDao(JdbcTemplate jdbc, ApplicationEventPublisher events) {
         this.jdbc = jdbc;
+        this.events = events;
     }
 
     public Optional<User> findByUsername(String username) {
@@ -64,6 +72,95 @@ public class UserDao {
                 );
             }
         }
+
+        events.publishEvent(new UserChangedEvent(user.getUsername()));
+    }
+
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<String> existing = jdbc.query(
+                "select username from users where username = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", usernames.toArray())),
+                (rs, rowNum) -> rs.getString(1)
+        );
+        return new HashSet<>(existing);
+    }
+
+    /**
+     * Inserts users and their roles with one statement per table. Usernames that already exist, including
+     * ones a concurrent transaction inserts meanwhile, are skipped through the unique constraint rather than
+     * failing the statement; the returned map holds the ids of the rows actually inserted.
+     */
+    @Transactional
+    public Map<String, Long> saveAll(List<User> users) {
+        Map<String, Long> ids = new HashMap<>(users.size() * 2);
+        if (users.isEmpty()) {
+            return ids;
+        }
+
+        String[] usernames = new String[users.size()];
+        String[] passwords = new String[users.size()];
+        String[] emails = new String[users.size()];
+        Boolean[] enabled = new Boolean[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            usernames[i] = user.getUsername();
+            passwords[i] = user.getPassword();
+            emails[i] = user.getEmail();
+            enabled[i] = user.isEnabled();
+        }
+
+        String insertUsers =
+                "insert into users(username, password, email, enabled) " +
+                "select u.username, u.password, u.email, u.enabled " +
+                "from unnest(?::text[], ?::text[], ?::text[], ?::boolean[]) as u(username, password, email, enabled) " +
+                "on conflict (username) do nothing " +
+                "returning id, username";
+        jdbc.query(
+                insertUsers,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("text", usernames));
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", passwords));
+                    ps.setArray(3, ps.getConnection().createArrayOf("text", emails));
+                    ps.setArray(4, ps.getConnection().createArrayOf("bool", enabled));
+                },
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                }
+        );
+
+        List<Long> roleUserIds = new ArrayList<>();
+        List<String> roleNames = new ArrayList<>();
+        for (User user : users) {
+            Long id = ids.get(user.getUsername());
+            if (id == null || user.getRoles() == null) {
+                continue;
+            }
+            user.setId(id);
+            for (String role : user.getRoles()) {
+                roleUserIds.add(id);
+                roleNames.add(role);
+            }
+        }
+
+        if (!roleUserIds.isEmpty()) {
+            jdbc.update(
+                    "insert into user_roles(user_id, role) select * from unnest(?::bigint[], ?::text[])",
+                    ps -> {
+                        ps.setArray(1, ps.getConnection().createArrayOf("int8", roleUserIds.toArray()));
+                        ps.setArray(2, ps.getConnection().createArrayOf("text", roleNames.toArray()));
+                    }
+            );
+        }
+
+        return ids;
+    }
+
+    public void setEnabled(String username, boolean enabled) {
+        jdbc.update("update users set enabled = ? where username = ?", enabled, username);
+        events.publishEvent(new UserChangedEvent(username));
     }
 
     private Set<String> getRoles(Long userId) {
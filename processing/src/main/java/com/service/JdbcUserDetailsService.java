@@ -1,7 +1,12 @@
 package com.service;
 
 import com.dto.User;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.repository.UserChangedEvent;
 import com.repository.UserDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,7 +14,12 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.time.Duration;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,16 +27,38 @@ public class JdbcUserDetailsService implements UserDetailsService {
 
     private final UserDao userDao;
 
-    public JdbcUserDetailsService(UserDao userDao) {
+    /**
+     * Short-lived cache of user rows. A fresh UserDetails is built per call because Spring Security
+     * erases credentials on the principal it returns. Rows load on virtual threads into cached futures,
+     * so concurrent logins share one query and a {@link UserChangedEvent} during a load discards it
+     * rather than letting the pre-change row back in.
+     */
+    private final AsyncCache<String, User> users;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public JdbcUserDetailsService(UserDao userDao,
+                                  @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                                  @Value("${auth.principal-cache.ttl:30s}") Duration ttl) {
         this.userDao = userDao;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
     }
 
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
-        User user = userDao.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        User user;
+        try {
+            user = users.get(username, (name, executor) -> CompletableFuture.supplyAsync(
+                    () -> userDao.findByUsername(name)
+                            .orElseThrow(() -> new UsernameNotFoundException("User not found")),
+                    loadExecutor)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
 
         Set<GrantedAuthority> authorities = user.getRoles().stream()
                 .map(SimpleGrantedAuthority::new)
@@ -40,4 +72,9 @@ public class JdbcUserDetailsService implements UserDetailsService {
                 authorities
         );
     }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        users.synchronous().invalidate(event.username());
+    }
 }
@@ -0,0 +1,92 @@
+package com.service;
+
+import com.dto.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache for products loaded from Postgres.
+ * Caffeine's W-TinyLFU policy keeps frequently requested products and evicts one-hit wonders first.
+ * Hits, misses and evictions are exported as the {@code cache.*} meters tagged {@code cache=products}.
+ * <p>
+ * Loads run on virtual threads and are cached as futures: concurrent misses for a product share one
+ * load, the Postgres query never runs under Caffeine's map lock, and invalidating a product while its
+ * load is in flight discards that load instead of letting it put the old row back.
+ */
+@Component
+public class ProductCache {
+
+    private final AsyncCache<UUID, Product> cache;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductCache(@Value("${product-cache.max-size:50000}") long maxSize,
+                        @Value("${product-cache.ttl:10m}") Duration ttl,
+                        MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+
+    public Product get(UUID id, Function<UUID, Product> loader) {
+        return join(cache.get(id, (key, executor) -> CompletableFuture.supplyAsync(() -> loader.apply(key), loadExecutor)));
+    }
+
+    /**
+     * Cached products for {@code ids}; the missing ones are loaded with a single {@code loader} call.
+     * Ids the loader doesn't return are left out of the result and not cached.
+     */
+    public Map<UUID, Product> getAll(Collection<UUID> ids, Function<Set<UUID>, Map<UUID, Product>> loader) {
+        return join(cache.getAll(ids, (missing, executor) -> CompletableFuture.supplyAsync(
+                () -> loader.apply(Set.copyOf(missing)), loadExecutor)));
+    }
+
+    public void invalidate(UUID id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll(Collection<UUID> ids) {
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Hit, miss, load and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,512 @@
+package com.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pipelined catalog import: one thread parses the JSON array, a bounded queue hands batches to several
+ * writers that {@code COPY} them into a staging table, and a single merge moves the staged rows into
+ * {@code products}. Progress is checkpointed after every contiguous run of committed batches, so a
+ * crashed import resumes from the last checkpoint instead of from the start of the file.
+ * <p>
+ * The merge is incremental: every product carries an md5 of its jsonb, only new or changed rows are
+ * written, and ids missing from the feed are reported (and deleted when {@code propagateDeletes} is set).
+ */
+@Slf4j
+public class ProductImportPipeline {
+
+    private static final String STAGING_TABLE = "products_import_staging";
+
+    private static final Batch END = new Batch(-1, -1, List.of());
+
+    private final DataSource dataSource;
+    private final ProductCache productCache;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int workers;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public ProductImportPipeline(DataSource dataSource,
+                                 ProductCache productCache,
+                                 int workers,
+                                 int batchSize,
+                                 int queueCapacity) {
+        this.dataSource = dataSource;
+        this.productCache = productCache;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportSummary importFile(Path file, Path checkpointFile, boolean propagateDeletes) throws Exception {
+        long started = System.nanoTime();
+
+        ensureSchema();
+
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile, file);
+        long resumeFrom = checkpoint != null && stagedRowsBelow(checkpoint.rows()) == checkpoint.rows()
+                ? checkpoint.rows()
+                : 0;
+        if (resumeFrom == 0) {
+            truncateStaging();
+        } else {
+            log.info("Resuming import of {} from row {}", file, resumeFrom);
+        }
+
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        CheckpointTracker tracker = new CheckpointTracker(checkpointFile, file, resumeFrom);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService writers = Executors.newFixedThreadPool(workers);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long written = tracker.written();
+            log.info("Import progress: {} rows staged, {} rows/s", written, Math.round(written / seconds));
+        }, 5, 5, TimeUnit.SECONDS);
+
+        long parsed;
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(writers.submit(() -> writeBatches(queue, tracker, failure)));
+            }
+
+            parsed = parse(file, resumeFrom, queue, () -> failure.get() != null || allDone(futures));
+
+            for (int i = 0; i < workers; i++) {
+                if (!enqueue(queue, END, () -> allDone(futures))) {
+                    break;
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import writer failed", e.getCause());
+        } finally {
+            writers.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Import writer failed", failure.get());
+        }
+
+        MergeResult merge = merge(propagateDeletes);
+        productCache.invalidateAll(merge.updatedIds());
+        if (propagateDeletes) {
+            productCache.invalidateAll(merge.deletedIds());
+        }
+        Files.deleteIfExists(checkpointFile);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        long imported = parsed - resumeFrom;
+        double rowsPerSecond = imported / Math.max(elapsed.toMillis() / 1000.0, 0.001);
+        ImportSummary summary = new ImportSummary(
+                parsed, resumeFrom,
+                merge.inserted(), merge.updatedIds().size(), merge.unchanged(),
+                merge.deletedIds(), propagateDeletes,
+                elapsed, rowsPerSecond);
+        log.info("Imported {} rows ({} resumed) in {} s, {} rows/s: {} inserted, {} updated, {} unchanged, {} {}",
+                imported, resumeFrom, elapsed.toSeconds(), Math.round(rowsPerSecond),
+                summary.inserted(), summary.updated(), summary.unchanged(),
+                summary.deletedIds().size(), propagateDeletes ? "deleted" : "missing from feed");
+        return summary;
+    }
+
+    /**
+     * Stops early once {@code stopped} reports a writer failure; the caller then raises it.
+     */
+    private long parse(Path file, long resumeFrom, BlockingQueue<Batch> queue,
+                       BooleanSupplier stopped) throws IOException, InterruptedException {
+        JsonFactory factory = mapper.getFactory();
+        long row = 0;
+        long seq = 0;
+
+        try (JsonParser parser = factory.createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Ожидается JSON массив");
+            }
+
+            List<ProductRow> rows = new ArrayList<>(batchSize);
+            long batchStart = resumeFrom;
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (stopped.getAsBoolean()) {
+                    break;
+                }
+
+                if (row < resumeFrom) {
+                    parser.skipChildren();
+                    row++;
+                    continue;
+                }
+
+                JsonNode node = mapper.readTree(parser);
+                rows.add(new ProductRow(
+                        row,
+                        UUID.fromString(node.path("id").asText()),
+                        node.path("name").asText(null),
+                        node.toString()));
+                row++;
+
+                if (rows.size() >= batchSize) {
+                    if (!enqueue(queue, new Batch(seq++, batchStart, rows), stopped)) {
+                        break;
+                    }
+                    batchStart = row;
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!rows.isEmpty() && !stopped.getAsBoolean()) {
+                enqueue(queue, new Batch(seq, batchStart, rows), stopped);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Waits for room in the queue, but gives up as soon as {@code abandon} holds: if the writers are gone,
+     * nothing drains the queue and a plain {@code put} would block forever.
+     *
+     * @return false if the batch was not queued
+     */
+    private static boolean enqueue(BlockingQueue<Batch> queue, Batch batch, BooleanSupplier abandon)
+            throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (abandon.getAsBoolean()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeBatches(BlockingQueue<Batch> queue, CheckpointTracker tracker,
+                              AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                // After a failure keep draining so the parser never blocks on a full queue
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    copy(batch);
+                    tracker.completed(batch);
+                } catch (Exception e) {
+                    // Runtime failures too (e.g. a DataAccessException from the pool): the parser must stop
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Error e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+
+    private void copy(Batch batch) throws SQLException, IOException {
+        StringBuilder csv = new StringBuilder(batch.rows().size() * 512);
+        for (ProductRow row : batch.rows()) {
+            csv.append(row.seq()).append(',')
+                    .append(row.id()).append(',');
+            if (row.name() != null) {
+                appendQuoted(csv, row.name());
+            }
+            csv.append(',');
+            appendQuoted(csv, row.rawJson());
+            csv.append('\n');
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY " + STAGING_TABLE + " (seq, id, name, raw_data) FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv.toString()));
+        }
+    }
+
+    private static void appendQuoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    private MergeResult merge(boolean propagateDeletes) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                CREATE TEMP TABLE products_import_src ON COMMIT DROP AS
+                SELECT DISTINCT ON (id) id, name, raw_data, md5(raw_data::text) AS content_hash
+                FROM products_import_staging
+                ORDER BY id, seq DESC
+                """);
+                statement.execute("CREATE UNIQUE INDEX ON products_import_src (id)");
+                statement.execute("ANALYZE products_import_src");
+
+                List<UUID> updated = queryIds(statement, """
+                UPDATE products p
+                SET name = s.name,
+                    raw_data = s.raw_data,
+                    content_hash = s.content_hash
+                FROM products_import_src s
+                WHERE p.id = s.id
+                  AND p.content_hash IS DISTINCT FROM s.content_hash
+                RETURNING p.id
+                """);
+
+                long inserted = statement.executeUpdate("""
+                INSERT INTO products (id, name, raw_data, content_hash)
+                SELECT s.id, s.name, s.raw_data, s.content_hash
+                FROM products_import_src s
+                WHERE NOT EXISTS (SELECT 1 FROM products p WHERE p.id = s.id)
+                """);
+
+                String missing = "FROM products p WHERE NOT EXISTS (SELECT 1 FROM products_import_src s WHERE s.id = p.id)";
+                List<UUID> deleted = propagateDeletes
+                        ? queryIds(statement, "DELETE " + missing + " RETURNING p.id")
+                        : queryIds(statement, "SELECT p.id " + missing);
+
+                long total;
+                try (ResultSet rs = statement.executeQuery("SELECT count(*) FROM products_import_src")) {
+                    rs.next();
+                    total = rs.getLong(1);
+                }
+
+                statement.execute("TRUNCATE " + STAGING_TABLE);
+                connection.commit();
+                return new MergeResult(inserted, updated, total - inserted - updated.size(), deleted);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static List<UUID> queryIds(Statement statement, String sql) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getObject(1, UUID.class));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Adds {@code content_hash} only when it is missing, since the ALTER locks {@code products} exclusively;
+     * the rows already there are hashed in the same transaction, once, instead of being rewritten by the
+     * first merge.
+     */
+    private void ensureSchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (!hasContentHash(statement)) {
+                connection.setAutoCommit(false);
+                try {
+                    statement.execute("ALTER TABLE products ADD COLUMN IF NOT EXISTS content_hash text");
+                    statement.executeUpdate(
+                            "UPDATE products SET content_hash = md5(raw_data::text) WHERE content_hash IS NULL");
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+            statement.execute("""
+            CREATE UNLOGGED TABLE IF NOT EXISTS products_import_staging (
+                seq bigint NOT NULL,
+                id uuid NOT NULL,
+                name text,
+                raw_data jsonb NOT NULL
+            )
+            """);
+        }
+    }
+
+    private static boolean hasContentHash(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("""
+                SELECT 1 FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'products' AND column_name = 'content_hash'
+                """)) {
+            return rs.next();
+        }
+    }
+
+    private void truncateStaging() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + STAGING_TABLE);
+        }
+    }
+
+    /**
+     * Unlogged staging is emptied by a Postgres crash, so a checkpoint is only trusted when every row
+     * below it is still staged.
+     */
+    private long stagedRowsBelow(long rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT count(DISTINCT seq) FROM " + STAGING_TABLE + " WHERE seq < ?")) {
+            statement.setLong(1, rows);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * {@code deletedIds} are the products missing from the feed; they were removed only if
+     * {@code deletesApplied} is true.
+     */
+    public record ImportSummary(long rows, long resumedFrom,
+                                long inserted, long updated, long unchanged,
+                                List<UUID> deletedIds, boolean deletesApplied,
+                                Duration elapsed, double rowsPerSecond) {
+    }
+
+    private record MergeResult(long inserted, List<UUID> updatedIds, long unchanged, List<UUID> deletedIds) {
+    }
+
+    private record ProductRow(long seq, UUID id, String name, String rawJson) {
+    }
+
+    private record Batch(long seq, long firstRow, List<ProductRow> rows) {
+    }
+
+    private record Checkpoint(long rows) {
+
+        static Checkpoint read(Path checkpointFile, Path source) throws IOException {
+            if (!Files.exists(checkpointFile)) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(checkpointFile)) {
+                properties.load(in);
+            }
+            boolean sameSource = source.toAbsolutePath().toString().equals(properties.getProperty("file"))
+                    && String.valueOf(Files.size(source)).equals(properties.getProperty("size"));
+            return sameSource ? new Checkpoint(Long.parseLong(properties.getProperty("rows", "0"))) : null;
+        }
+    }
+
+    /**
+     * Batches finish out of order; the checkpoint only advances over the contiguous prefix of
+     * committed batches.
+     */
+    private static class CheckpointTracker {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TreeMap<Long, Batch> pending = new TreeMap<>();
+        private final Path checkpointFile;
+        private final Path source;
+        private final AtomicLong written = new AtomicLong();
+        private long nextSeq;
+        private long watermark;
+
+        CheckpointTracker(Path checkpointFile, Path source, long resumeFrom) {
+            this.checkpointFile = checkpointFile;
+            this.source = source;
+            this.watermark = resumeFrom;
+        }
+
+        void completed(Batch batch) throws IOException {
+            written.addAndGet(batch.rows().size());
+            lock.lock();
+            try {
+                pending.put(batch.seq(), batch);
+                boolean advanced = false;
+                while (!pending.isEmpty() && pending.firstKey() == nextSeq) {
+                    Batch done = pending.pollFirstEntry().getValue();
+                    watermark = done.firstRow() + done.rows().size();
+                    nextSeq++;
+                    advanced = true;
+                }
+                if (advanced) {
+                    save();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long written() {
+            return written.get();
+        }
+
+        private void save() throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("file", source.toAbsolutePath().toString());
+            properties.setProperty("size", String.valueOf(Files.size(source)));
+            properties.setProperty("rows", String.valueOf(watermark));
+
+            Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "product import checkpoint");
+            }
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.service;
+
+import com.dto.ProductChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repository.ProductOutboxDao;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes product outbox entries to Kafka, keyed by product id so changes to one product stay in order.
+ * Entries are deleted in the same transaction that claimed them, only after the broker acknowledged every
+ * send; a failure rolls back and the batch is sent again on the next run. Delivery is therefore
+ * at-least-once, and the consumer drops duplicates by {@link ProductChangeEvent#version()}.
+ * <p>
+ * Several instances may run the relay; a transaction-scoped advisory lock taken in
+ * {@link ProductOutboxDao#claim} lets only one of them publish at a time, so entries reach the topic in
+ * outbox order.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "catalog.sync.enabled", havingValue = "true")
+public class ProductOutboxRelay {
+
+    private final ProductOutboxDao outboxDao;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    public ProductOutboxRelay(ProductOutboxDao outboxDao,
+                              KafkaTemplate<String, String> kafkaTemplate,
+                              ObjectMapper mapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${catalog.sync.topic:catalog.products}") String topic,
+                              @Value("${catalog.sync.batch-size:500}") int batchSize,
+                              @Value("${catalog.sync.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxDao = outboxDao;
+        this.kafkaTemplate = kafkaTemplate;
+        this.mapper = mapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @PostConstruct
+    public void init() {
+        outboxDao.ensureSchema();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.sync.poll-interval:1s}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = publishBatch();
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int publishBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<ProductChangeEvent> events = outboxDao.claim(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+            List<Long> ids = new ArrayList<>(events.size());
+            for (ProductChangeEvent event : events) {
+                sends.add(kafkaTemplate.send(topic, event.productId().toString(), toJson(event)));
+                ids.add(event.version());
+            }
+
+            try {
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                        .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while publishing outbox entries", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Publishing outbox entries failed", e);
+            }
+
+            outboxDao.delete(ids);
+            return events.size();
+        });
+        return published == null ? 0 : published;
+    }
+
+    private String toJson(ProductChangeEvent event) {
+        try {
+            return mapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
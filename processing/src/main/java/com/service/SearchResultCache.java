@@ -0,0 +1,145 @@
+package com.service;
+
+import com.dto.DtoQuery;
+import com.dto.SearchResult;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Caches the ordered hit ids (and facets) returned by the search service for a normalized query.
+ * Concurrent misses for the same key share one in-flight future, so only the first caller goes upstream.
+ * Products themselves are hydrated through {@link ProductCache}, so re-imports never leak stale rows here.
+ * <p>
+ * Results are tagged with the search index generation, {@code <indices>/<sync_version>}. When a response
+ * reports a newer generation than the newest one seen (the index was rebuilt, or the catalog sync changed
+ * it), everything cached so far is dropped; cache hits can't see the change, so it is noticed on the next
+ * miss, and the TTL bounds how long a result can outlive its generation without one. A response from an
+ * older generation, say from a search instance that hasn't refreshed yet, is returned but neither cached
+ * nor allowed to invalidate anything, so instances taking turns behind a load balancer don't keep
+ * clearing the cache. The same holds after the alias is switched back to an older index; such results are
+ * only cached again once the TTL has passed and a newer generation appears.
+ */
+@Component
+public class SearchResultCache {
+
+    private final AsyncCache<SearchKey, SearchResult> cache;
+    private final AtomicReference<String> generation = new AtomicReference<>();
+
+    public SearchResultCache(@Value("${search-cache.max-size:10000}") long maxSize,
+                             @Value("${search-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public SearchResult get(DtoQuery dtoQuery, Function<DtoQuery, SearchResult> loader) {
+        SearchKey key = SearchKey.of(dtoQuery);
+
+        CompletableFuture<SearchResult> own = new CompletableFuture<>();
+        CompletableFuture<SearchResult> inFlight = cache.asMap().putIfAbsent(key, own);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            SearchResult result = loader.apply(dtoQuery);
+            if (!observeGeneration(result.generation())) {
+                cache.asMap().remove(key, own);
+            }
+            own.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Drops everything cached when {@code seen} is newer than the newest generation so far. That includes
+     * the caller's own in-flight entry, so the triggering result itself isn't cached; the next miss caches
+     * it again.
+     *
+     * @return false when {@code seen} is older than the newest generation, so its result must not be cached
+     */
+    private boolean observeGeneration(String seen) {
+        if (seen == null) {
+            return true;
+        }
+        while (true) {
+            String newest = generation.get();
+            if (newest != null) {
+                int order = compareGenerations(seen, newest);
+                if (order == 0) {
+                    return true;
+                }
+                if (order < 0) {
+                    return false;
+                }
+            }
+            if (generation.compareAndSet(newest, seen)) {
+                if (newest != null) {
+                    invalidateAll();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Versioned index names end in their creation time, so they sort by age; within one index the
+     * {@code sync_version} only grows. A generation in an unknown format counts as newer when it differs.
+     */
+    private static int compareGenerations(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        int slashA = a.lastIndexOf('/');
+        int slashB = b.lastIndexOf('/');
+        if (slashA < 0 || slashB < 0) {
+            return 1;
+        }
+        int byIndex = a.substring(0, slashA).compareTo(b.substring(0, slashB));
+        if (byIndex != 0) {
+            return byIndex;
+        }
+        try {
+            return Long.compare(Long.parseLong(a.substring(slashA + 1)), Long.parseLong(b.substring(slashB + 1)));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private record SearchKey(String query, int cnt, String strategy,
+                             List<String> tags, Double minPrice, Double maxPrice, boolean facets) {
+
+        static SearchKey of(DtoQuery dtoQuery) {
+            String normalized = dtoQuery.query() == null
+                    ? ""
+                    : String.join(" ", dtoQuery.query().trim().toLowerCase(Locale.ROOT).split("\\s+"));
+            // Tag filters are an OR, so their order doesn't change the result
+            List<String> tags = dtoQuery.tags() == null ? List.of() : dtoQuery.tags().stream().sorted().distinct().toList();
+            return new SearchKey(normalized, dtoQuery.cnt() == null ? 0 : dtoQuery.cnt(), dtoQuery.strategy(),
+                    tags, dtoQuery.minPrice(), dtoQuery.maxPrice(), Boolean.TRUE.equals(dtoQuery.facets()));
+        }
+    }
+}
@@ -1,24 +1,34 @@
 package com.service;
 
+import com.component.SearchServiceClient;
 import com.dto.DtoQuery;
 import com.dto.Product;
 import com.dto.ProductSearchResponse;
-import com.dto.SearchDocument;
+import com.dto.SearchHitRef;
+import com.dto.SearchIdsResponse;
+import com.dto.SearchResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import lombok.Getter;
 import lombok.ToString;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -27,81 +37,175 @@ public class SearchService {
 
     private final JdbcTemplate jdbcTemplate;
 
-    private final RestTemplate restTemplate;
+    private final SearchServiceClient searchServiceClient;
 
-    private final String searchServiceUrl = "http://localhost:8085";
+    private final ProductCache productCache;
 
-    @Autowired
-    private ObjectMapper mapper;
+    private final SearchResultCache searchResultCache;
 
+    private final ObjectMapper mapper;
 
-    public SearchService(RestTemplate restTemplate, JdbcTemplate jdbcTemplate) {
+    private final boolean rawJsonPassthrough;
+
+    // A method reference, since a lambda initializer can't read the final fields the constructor assigns
+    private final RowMapper<Product> productRowMapper = this::mapProduct;
+
+    public SearchService(SearchServiceClient searchServiceClient,
+                         JdbcTemplate jdbcTemplate,
+                         ProductCache productCache,
+                         SearchResultCache searchResultCache,
+                         ObjectMapper mapper,
+                         @Value("${products.raw-json-passthrough:true}") boolean rawJsonPassthrough) {
         this.jdbcTemplate = jdbcTemplate;
-        this.restTemplate = restTemplate;
+        this.searchServiceClient = searchServiceClient;
+        this.productCache = productCache;
+        this.searchResultCache = searchResultCache;
+        this.mapper = mapper;
+        this.rawJsonPassthrough = rawJsonPassthrough;
     }
 
-    public ProductSearchResponse searchProducts(DtoQuery dtoQuery) {
+    private Product mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        UUID productId = rs.getObject("id", UUID.class);
+        String name = rs.getString("name");
+
+        String rawJson = rs.getString("raw_data");
+
+        if (rawJsonPassthrough) {
+            return Product.fromRawJson(productId, name, rawJson);
+        }
+
+        JsonNode rawData = null;
         try {
+            rawData = mapper.readTree(rawJson);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
 
+        return new Product(productId, name, rawData);
+    }
 
-            ResponseEntity<SearchDocument[]> response =
-                    restTemplate.postForEntity(
-                            searchServiceUrl + "/search",
-                            dtoQuery,
-                            SearchDocument[].class
-                    );
+    public ProductSearchResponse searchProducts(DtoQuery dtoQuery) {
+        try {
 
+            SearchResult result = search(dtoQuery);
 
-            List<Product> products = new ArrayList<>();
+            ProductSearchResponse productSearchResponse = new ProductSearchResponse();
+            productSearchResponse.setItems(getProductsByIds(result.ids()));
+            productSearchResponse.setFacets(result.facets());
+            return productSearchResponse;
 
-            List<SearchDocument> documentList = Arrays.asList(response.getBody());
 
-            for (int i = 0; i < documentList.size(); i++) {
-                UUID curId = UUID.fromString(documentList.get(i).getId());
+        } catch (Exception e) {
+            //log.error("Error calling search service", e);
+            throw new RuntimeException("Search service unavailable", e);
+        }
+    }
 
-                Product product = getProductById(curId);
+    /**
+     * One page of products for a cursor-based walk over all hits. Pages are not cached: the cursor pins
+     * a point-in-time on the search side, so consecutive pages stay consistent with each other.
+     */
+    public ProductSearchResponse searchProductsPage(DtoQuery dtoQuery) {
+        try {
+
+            SearchIdsResponse page = searchServiceClient.searchPage(dtoQuery);
 
-                products.add(product);
+            List<UUID> ids = new ArrayList<>();
+            if (page != null && page.hits() != null) {
+                for (SearchHitRef hit : page.hits()) {
+                    ids.add(UUID.fromString(hit.id()));
+                }
             }
 
             ProductSearchResponse productSearchResponse = new ProductSearchResponse();
-            productSearchResponse.setItems(products);
+            productSearchResponse.setItems(getProductsByIds(ids));
+            if (page != null) {
+                productSearchResponse.setNextCursor(page.nextCursor());
+                productSearchResponse.setFacets(page.facets());
+            }
             return productSearchResponse;
 
-
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or expired search cursor", e);
         } catch (Exception e) {
-            //log.error("Error calling search service", e);
             throw new RuntimeException("Search service unavailable", e);
         }
     }
 
+    /**
+     * Hit ids for the query in relevance order, served from the result cache when possible.
+     */
+    public List<UUID> searchProductIds(DtoQuery dtoQuery) {
+        return search(dtoQuery).ids();
+    }
+
+    private SearchResult search(DtoQuery dtoQuery) {
+        return dtoQuery == null
+                ? searchServiceClient.search(null)
+                : searchResultCache.get(dtoQuery, searchServiceClient::search);
+    }
+
+    public void clearSearchCache() {
+        searchResultCache.invalidateAll();
+    }
+
     public Product getProductById(UUID id) {
+        return productCache.get(id, this::loadProductById);
+    }
+
+    private Product loadProductById(UUID id) {
         try {
             String sql = "SELECT id, name, raw_data FROM products WHERE id = ?";
 
             return jdbcTemplate.queryForObject(
                     sql,
                     new Object[]{id},
-                    (rs, rowNum) -> {
-                        UUID productId = rs.getObject("id", UUID.class);
-                        String name = rs.getString("name");
+                    productRowMapper);
+
+
+        } catch (Exception e) {
+            throw new RuntimeException("Product not found", e);
+        }
+    }
 
-                        String rawJson = rs.getString("raw_data");
+    /**
+     * Serves cached products and loads the rest in one round trip, returning them in the order of {@code ids}.
+     * Ids that are not present in Postgres are skipped.
+     */
+    public List<Product> getProductsByIds(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-                        JsonNode rawData = null;
-                        try {
-                            rawData = mapper.readTree(rawJson);
-                        } catch (JsonProcessingException e) {
-                            throw new RuntimeException(e);
-                        }
+        Set<UUID> uniqueIds = new LinkedHashSet<>(ids);
 
-                        return new Product(productId, name, rawData);
-                    });
+        Map<UUID, Product> byId = productCache.getAll(uniqueIds, this::loadProductsByIds);
 
+        List<Product> products = new ArrayList<>(uniqueIds.size());
+        for (UUID id : uniqueIds) {
+            Product product = byId.get(id);
+            if (product == null) {
+                log.warn("Search hit {} is missing in products table, skipping", id);
+                continue;
+            }
+            products.add(product);
+        }
+        return products;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Product not found", e);
+    private Map<UUID, Product> loadProductsByIds(Set<UUID> missing) {
+        String sql = "SELECT id, name, raw_data FROM products WHERE id = ANY(?)";
+
+        List<Product> rows = jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", missing.toArray())),
+                productRowMapper);
+
+        Map<UUID, Product> loaded = new HashMap<>(rows.size() * 2);
+        for (Product product : rows) {
+            loaded.put(product.getId(), product);
         }
+        return loaded;
     }
 
     @Getter
@@ -115,4 +219,4 @@ public class SearchService {
             this.cnt = limit;
         }
     }
-}
\ No newline at end of file
+}
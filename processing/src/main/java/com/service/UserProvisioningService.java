@@ -0,0 +1,151 @@
+package com.service;
+
+import com.component.PooledPasswordEncoder;
+import com.dto.BulkRegisterResponse;
+import com.dto.BulkRegisterResult;
+import com.dto.RegisterRequest;
+import com.dto.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repository.UserDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a JSON array of {@link RegisterRequest} and provisions the users chunk by chunk:
+ * passwords are hashed in parallel on the hashing pool and every chunk is written with one insert
+ * per table. Bad or duplicate rows are reported without aborting the batch.
+ */
+@Slf4j
+@Service
+public class UserProvisioningService {
+
+    private final UserDao userDao;
+    private final PooledPasswordEncoder passwordEncoder;
+    private final ObjectMapper mapper;
+    private final int chunkSize;
+
+    public UserProvisioningService(UserDao userDao,
+                                   PooledPasswordEncoder passwordEncoder,
+                                   ObjectMapper mapper,
+                                   @Value("${auth.bulk.chunk-size:500}") int chunkSize) {
+        this.userDao = userDao;
+        this.passwordEncoder = passwordEncoder;
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkRegisterResponse registerAll(InputStream body) throws IOException {
+        List<BulkRegisterResult> rejected = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        int created = 0;
+
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of users");
+            }
+
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                chunk.add(new Row(total++, mapper.readValue(parser, RegisterRequest.class)));
+                if (chunk.size() >= chunkSize) {
+                    created += process(chunk, seen, rejected);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                created += process(chunk, seen, rejected);
+            }
+        }
+
+        int duplicates = 0;
+        int invalid = 0;
+        for (BulkRegisterResult result : rejected) {
+            if (result.status() == BulkRegisterResult.Status.DUPLICATE) {
+                duplicates++;
+            } else {
+                invalid++;
+            }
+        }
+
+        log.info("Bulk registration: {} rows, {} created, {} duplicates, {} invalid",
+                total, created, duplicates, invalid);
+        return new BulkRegisterResponse(total, created, duplicates, invalid, rejected);
+    }
+
+    private int process(List<Row> chunk, Set<String> seen, List<BulkRegisterResult> rejected) {
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            RegisterRequest request = row.request();
+            if (isBlank(request.username()) || isBlank(request.password())) {
+                rejected.add(new BulkRegisterResult(row.index(), request.username(),
+                        BulkRegisterResult.Status.INVALID, "username and password are required"));
+            } else if (!seen.add(request.username())) {
+                rejected.add(new BulkRegisterResult(row.index(), request.username(),
+                        BulkRegisterResult.Status.DUPLICATE, "Username repeated in the batch"));
+            } else {
+                candidates.add(row);
+            }
+        }
+
+        Set<String> existing = userDao.findExistingUsernames(
+                candidates.stream().map(row -> row.request().username()).toList());
+
+        List<Row> fresh = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            if (existing.contains(row.request().username())) {
+                rejected.add(new BulkRegisterResult(row.index(), row.request().username(),
+                        BulkRegisterResult.Status.DUPLICATE, "Username already exists"));
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        List<String> hashes = passwordEncoder.encodeAll(
+                fresh.stream().map(row -> row.request().password()).toList());
+
+        List<User> users = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            RegisterRequest request = fresh.get(i).request();
+            User u = new User();
+            u.setUsername(request.username());
+            u.setPassword(hashes.get(i));
+            u.setEmail(request.email());
+            u.setEnabled(true);
+            u.setRoles(Set.of("ROLE_USER"));
+            users.add(u);
+        }
+
+        Map<String, Long> ids = userDao.saveAll(users);
+
+        // Usernames another request inserted after the existence check; the insert skipped them on conflict
+        for (Row row : fresh) {
+            if (!ids.containsKey(row.request().username())) {
+                rejected.add(new BulkRegisterResult(row.index(), row.request().username(),
+                        BulkRegisterResult.Status.DUPLICATE, "Username already exists"));
+            }
+        }
+        return ids.size();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Row(int index, RegisterRequest request) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.service;
+
+import com.dto.ProductChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repository.ProductOutboxDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductOutboxRelayTest {
+
+    private static final String TOPIC = "catalog.products";
+
+    private ProductOutboxDao outboxDao;
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private PlatformTransactionManager transactionManager;
+    private ProductOutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxDao = mock(ProductOutboxDao.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        relay = new ProductOutboxRelay(outboxDao, kafkaTemplate, new ObjectMapper(), transactionManager,
+                TOPIC, 2, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void publishesClaimedEntriesKeyedByProductAndDeletesThemAfterTheAcks() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(outboxDao.claim(2)).thenReturn(List.of(
+                new ProductChangeEvent(10, first, "UPSERT", "Phone", "{\"price\":100}"),
+                new ProductChangeEvent(11, second, "DELETE", null, null)
+        ));
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), anyString())).thenReturn(acked());
+
+        relay.relay();
+
+        InOrder order = inOrder(kafkaTemplate, outboxDao, transactionManager);
+        order.verify(kafkaTemplate).send(eq(TOPIC), eq(first.toString()),
+                argThat(json -> json.contains("\"version\":10") && json.contains("\"data\":{\"price\":100}")));
+        order.verify(kafkaTemplate).send(eq(TOPIC), eq(second.toString()),
+                argThat(json -> json.contains("\"op\":\"DELETE\"")));
+        order.verify(outboxDao).delete(List.of(10L, 11L));
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void keepsTheEntriesWhenTheBrokerRejectsASend() {
+        UUID product = UUID.randomUUID();
+        when(outboxDao.claim(2)).thenReturn(List.of(new ProductChangeEvent(10, product, "UPSERT", "Phone", "{}")));
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(outboxDao, never()).delete(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void publishesNothingWhileAnotherInstanceHoldsTheRelayLock() {
+        // claim() returns no rows when the advisory lock is taken elsewhere
+        when(outboxDao.claim(anyInt())).thenReturn(List.of());
+
+        relay.relay();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxDao, never()).delete(any());
+    }
+
+    @Test
+    void drainsFullBatchesInOneRun() {
+        when(outboxDao.claim(2)).thenReturn(
+                List.of(event(1), event(2)),
+                List.of(event(3))
+        );
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), anyString())).thenReturn(acked());
+
+        relay.relay();
+
+        verify(outboxDao).delete(List.of(1L, 2L));
+        verify(outboxDao).delete(List.of(3L));
+    }
+
+    private static ProductChangeEvent event(long version) {
+        return new ProductChangeEvent(version, UUID.randomUUID(), "UPSERT", "Product " + version, "{}");
+    }
+
+    private static CompletableFuture<SendResult<String, String>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
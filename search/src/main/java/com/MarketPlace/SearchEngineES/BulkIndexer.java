@@ -0,0 +1,304 @@
+package com.MarketPlace.SearchEngineES;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.MarketPlace.SearchEngineES.dto.Document;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.ResponseException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams documents into an index with several bulk requests in flight.
+ * <ul>
+ *     <li>batches are closed by estimated payload size, not document count;</li>
+ *     <li>the number of concurrent requests grows by one after each clean batch and halves whenever
+ *     Elasticsearch pushes back (AIMD), so the indexer settles at what the cluster can absorb;</li>
+ *     <li>items rejected with 429 / {@code es_rejected_execution_exception} are resent with exponential
+ *     backoff and jitter; other item errors are counted as failures.</li>
+ * </ul>
+ * {@link #add} and {@link #flush} are meant for a single producer thread.
+ */
+@Slf4j
+public class BulkIndexer implements AutoCloseable {
+
+    public record Settings(long maxBatchBytes,
+                           int maxBatchDocs,
+                           int initialConcurrency,
+                           int maxConcurrency,
+                           int maxRetries,
+                           Duration initialBackoff,
+                           Duration maxBackoff) {
+
+        public static Settings defaults() {
+            return new Settings(5 * 1024 * 1024, 5000, 2, 8, 8, Duration.ofMillis(100), Duration.ofSeconds(10));
+        }
+
+        public Settings withMaxConcurrency(int limit) {
+            return new Settings(maxBatchBytes, maxBatchDocs, Math.min(initialConcurrency, limit), limit,
+                    maxRetries, initialBackoff, maxBackoff);
+        }
+    }
+
+    public record Stats(long indexed, long failed, long retried, long bytes, int concurrency,
+                        Duration elapsed, double docsPerSecond) {
+    }
+
+    private final ElasticsearchAsyncClient client;
+    private final String indexName;
+    private final Settings settings;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    // Batches sent or waiting for a retry; each holds one slot of the concurrency limit
+    private int inFlight;
+    private int concurrency;
+
+    private List<Document> buffer = new ArrayList<>();
+    private long bufferBytes;
+
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final long startedNanos = System.nanoTime();
+
+    BulkIndexer(ElasticsearchAsyncClient client, String indexName, Settings settings) {
+        this.client = client;
+        this.indexName = indexName;
+        this.settings = settings;
+        this.concurrency = Math.max(1, Math.min(settings.initialConcurrency(), settings.maxConcurrency()));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("bulk-retry-" + indexName).daemon().factory());
+    }
+
+    public void add(Document document) {
+        long size = estimateBytes(document);
+        if (!buffer.isEmpty()
+                && (bufferBytes + size > settings.maxBatchBytes() || buffer.size() >= settings.maxBatchDocs())) {
+            flush();
+        }
+        buffer.add(document);
+        bufferBytes += size;
+    }
+
+    /**
+     * Sends the buffered documents, blocking while the concurrency limit is reached.
+     */
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Document> batch = buffer;
+        bytes.add(bufferBytes);
+        buffer = new ArrayList<>();
+        bufferBytes = 0;
+
+        acquireSlot();
+        send(batch, 0);
+    }
+
+    /**
+     * Flushes and waits until every batch, including retries, has finished.
+     */
+    public Stats awaitCompletion() {
+        flush();
+        lock.lock();
+        try {
+            while (inFlight > 0) {
+                slotFreed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulk requests", e);
+        } finally {
+            lock.unlock();
+        }
+        return stats();
+    }
+
+    public Stats stats() {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedNanos);
+        long done = indexed.sum();
+        double seconds = elapsed.toNanos() / 1e9;
+        int currentConcurrency;
+        lock.lock();
+        try {
+            currentConcurrency = concurrency;
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(done, failed.sum(), retried.sum(), bytes.sum(), currentConcurrency, elapsed,
+                seconds > 0 ? done / seconds : 0);
+    }
+
+    @Override
+    public void close() {
+        try {
+            awaitCompletion();
+        } finally {
+            retryScheduler.shutdownNow();
+        }
+    }
+
+    private void send(List<Document> batch, int attempt) {
+        BulkRequest.Builder request = new BulkRequest.Builder();
+        for (Document document : batch) {
+            request.operations(op -> op
+                    .index(idx -> idx
+                            .index(indexName)
+                            .id(document.getId())
+                            .document(document)
+                    )
+            );
+        }
+
+        try {
+            client.bulk(request.build())
+                    .whenComplete((response, error) -> onResponse(batch, attempt, response, error));
+        } catch (RuntimeException e) {
+            onResponse(batch, attempt, null, e);
+        }
+    }
+
+    private void onResponse(List<Document> batch, int attempt, BulkResponse response, Throwable error) {
+        if (error != null) {
+            if (isBackPressure(error) && attempt < settings.maxRetries()) {
+                decreaseConcurrency();
+                retryLater(batch, attempt + 1);
+            } else {
+                log.error("Bulk request of {} documents to {} failed", batch.size(), indexName, unwrap(error));
+                failed.add(batch.size());
+                releaseSlot(false);
+            }
+            return;
+        }
+
+        List<Document> rejected = new ArrayList<>();
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                indexed.increment();
+            } else if (isBackPressure(item)) {
+                rejected.add(batch.get(i));
+            } else {
+                failed.increment();
+                log.warn("Document {} was not indexed: {} {}", item.id(), item.error().type(), item.error().reason());
+            }
+        }
+
+        if (rejected.isEmpty()) {
+            releaseSlot(true);
+        } else if (attempt < settings.maxRetries()) {
+            decreaseConcurrency();
+            retryLater(rejected, attempt + 1);
+        } else {
+            log.error("Giving up on {} documents after {} retries", rejected.size(), attempt);
+            failed.add(rejected.size());
+            releaseSlot(false);
+        }
+    }
+
+    /**
+     * The batch keeps its slot while it waits, so new batches can't take its place in the meantime.
+     */
+    private void retryLater(List<Document> batch, int attempt) {
+        retried.add(batch.size());
+        long base = Math.min(settings.maxBackoff().toMillis(),
+                settings.initialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        long delay = base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        retryScheduler.schedule(() -> send(batch, attempt), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void acquireSlot() {
+        lock.lock();
+        try {
+            while (inFlight >= concurrency) {
+                slotFreed.await();
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a bulk slot", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot(boolean clean) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (clean && concurrency < settings.maxConcurrency()) {
+                concurrency++;
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decreaseConcurrency() {
+        lock.lock();
+        try {
+            concurrency = Math.max(1, concurrency / 2);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isBackPressure(BulkResponseItem item) {
+        return item.status() == 429 || "es_rejected_execution_exception".equals(item.error().type());
+    }
+
+    private static boolean isBackPressure(Throwable error) {
+        Throwable cause = unwrap(error);
+        while (cause != null) {
+            if (cause instanceof ElasticsearchException e && e.status() == 429) {
+                return true;
+            }
+            if (cause instanceof ResponseException e && e.getResponse().getStatusLine().getStatusCode() == 429) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Upper estimate of the serialized size: two bytes per character covers Cyrillic text in UTF-8.
+     * Close enough to cap the request size without serializing every document twice.
+     */
+    static long estimateBytes(Document document) {
+        long chars = length(document.getId()) + length(document.getName()) + length(document.getText());
+        if (document.getTags() != null) {
+            for (String tag : document.getTags()) {
+                chars += length(tag) + 3;
+            }
+        }
+        return 2 * chars + 128;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,121 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.CatalogLoadProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads the catalog once the application has started, on a background thread: documents are streamed
+ * from the catalog file straight into the {@link SearchBackend} and into the suggestion terms. When the
+ * index is still empty, it is filled and only made searchable at the end, so a half-built index is
+ * never served. A load with more than {@code search.reindex.max-failed} failed documents is discarded
+ * instead, so the next start loads again rather than keeping a partial index. Until the load finishes,
+ * the {@code catalog} health contributor keeps the readiness group down.
+ */
+@Slf4j
+@Service
+public class CatalogLoader {
+
+    public enum Phase {PENDING, LOADING, READY, FAILED}
+
+    private final SearchBackend backend;
+    private final SuggestService suggestService;
+    private final CatalogReader catalogReader;
+    private final ObjectProvider<ProductChangeListener> catalogSync;
+    private final long maxFailed;
+
+    private final LongAdder documentsRead = new LongAdder();
+    private volatile Phase phase = Phase.PENDING;
+    private volatile SearchBackend.CatalogLoad catalogLoad;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String error;
+
+    public CatalogLoader(SearchBackend backend,
+                         SuggestService suggestService,
+                         CatalogReader catalogReader,
+                         ObjectProvider<ProductChangeListener> catalogSync,
+                         @Value("${search.reindex.max-failed:0}") long maxFailed) {
+        this.backend = backend;
+        this.suggestService = suggestService;
+        this.catalogReader = catalogReader;
+        this.catalogSync = catalogSync;
+        this.maxFailed = maxFailed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofPlatform().name("catalog-loader").daemon().start(this::load);
+    }
+
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public CatalogLoadProgress progress() {
+        BulkIndexer.Stats stats = catalogLoad == null ? null : catalogLoad.stats();
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        long elapsedMs = startedNanos == 0 ? 0 : Duration.ofNanos(end - startedNanos).toMillis();
+        return new CatalogLoadProgress(
+                phase.name(),
+                documentsRead.sum(),
+                stats == null ? 0 : stats.indexed(),
+                stats == null ? 0 : stats.failed(),
+                stats == null ? 0 : stats.retried(),
+                stats == null ? 0 : stats.docsPerSecond(),
+                elapsedMs,
+                error
+        );
+    }
+
+    private void load() {
+        startedNanos = System.nanoTime();
+        phase = Phase.LOADING;
+
+        try {
+            catalogLoad = backend.beginCatalogLoad();
+
+            SearchBackend.CatalogLoad target = catalogLoad;
+            SuggestService.CatalogTerms terms = new SuggestService.CatalogTerms();
+            catalogReader.forEachDocument(document -> {
+                terms.add(document);
+                if (target != null) {
+                    target.add(document);
+                }
+                documentsRead.increment();
+            });
+
+            if (target != null) {
+                BulkIndexer.Stats written = target.awaitWrites();
+                if (written.failed() > maxFailed) {
+                    throw new IllegalStateException(written.failed() + " documents failed to index");
+                }
+                BulkIndexer.Stats stats = target.commit();
+                log.info("Indexed {} documents in {} ms ({} docs/s), {} failed, {} retried",
+                        stats.indexed(), stats.elapsed().toMillis(), Math.round(stats.docsPerSecond()),
+                        stats.failed(), stats.retried());
+            }
+
+            suggestService.rebuildFromCatalog(terms);
+            finishedNanos = System.nanoTime();
+            phase = Phase.READY;
+            log.info("Catalog loaded: {} documents, {} suggestions", documentsRead.sum(), suggestService.size());
+            catalogSync.ifAvailable(ProductChangeListener::start);
+        } catch (Exception e) {
+            finishedNanos = System.nanoTime();
+            error = e.getMessage();
+            phase = Phase.FAILED;
+            log.error("Catalog load failed", e);
+            if (catalogLoad != null) {
+                catalogLoad.abort();
+            }
+        }
+    }
+}
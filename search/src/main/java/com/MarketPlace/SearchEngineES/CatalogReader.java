@@ -0,0 +1,49 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams documents from the configured catalog file ({@code search.catalog.path}).
+ */
+@Component
+public class CatalogReader {
+
+    private final Resource catalog;
+    private final ReadJson readJson;
+
+    public CatalogReader(@Value("${search.catalog.path:classpath:data/documents_list.json}") Resource catalog,
+                         ReadJson readJson) {
+        this.catalog = catalog;
+        this.readJson = readJson;
+    }
+
+    /**
+     * @return the number of documents read
+     */
+    public long forEachDocument(Consumer<Document> consumer) throws IOException {
+        try (InputStream in = catalog.getInputStream()) {
+            return readJson.forEachItem(in, item -> consumer.accept(toDocument(item)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document toDocument(Map<String, Object> item) {
+        String id = (String) item.get("id");
+        String name = (String) item.get("name");
+        String text = (String) item.get("text");
+        Double price = item.get("price") instanceof Number number ? number.doubleValue() : null;
+
+        List<String> tags = (List<String>) item.get("tags");
+
+        return new Document(id, text, name, tags == null ? new String[0] : tags.toArray(String[]::new), price);
+    }
+}
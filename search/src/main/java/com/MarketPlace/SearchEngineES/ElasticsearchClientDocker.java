@@ -1,29 +1,101 @@
 package com.MarketPlace.SearchEngineES;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.HealthStatus;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
 import co.elastic.clients.elasticsearch.indices.*;
+import co.elastic.clients.json.JsonData;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.DocumentScore;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.Facets;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+import com.MarketPlace.SearchEngineES.dto.ProductChange;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
 @Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "elasticsearch", matchIfMissing = true)
 public class ElasticsearchClientDocker {
 
+    private static final String SYNC_SCRIPT = """
+            if (ctx._source.sync_version != null && ctx._source.sync_version >= params.version) {
+              ctx.op = 'noop';
+            } else {
+              for (entry in params.fields.entrySet()) {
+                ctx._source[entry.getKey()] = entry.getValue();
+              }
+              ctx._source.remove('deleted');
+              ctx._source.sync_version = params.version;
+            }
+            """;
+
+    // A delete leaves a versioned tombstone, so an older upsert arriving later can't bring the product back
+    private static final String DELETE_SCRIPT = """
+            if (ctx._source.sync_version != null && ctx._source.sync_version >= params.version) {
+              ctx.op = 'noop';
+            } else {
+              ctx._source.deleted = true;
+              ctx._source.sync_version = params.version;
+            }
+            """;
+
+    private static final int TOMBSTONE_PAGE_SIZE = 1000;
+
+    private static final DateTimeFormatter INDEX_VERSION_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
     private final ElasticsearchClient client;
+    private final ElasticsearchAsyncClient asyncClient;
+
+    // Set when search.msearch.enabled: top-N searches are coalesced into _msearch requests
+    private final SearchBatcher.Settings batchSettings;
+    private final ScheduledExecutorService batchScheduler;
+    private final Map<Class<?>, SearchBatcher<?>> batchers = new ConcurrentHashMap<>();
 
     public ElasticsearchClientDocker() {
+        this(false, Duration.ofMillis(2), 32);
+    }
+
+    @Autowired
+    public ElasticsearchClientDocker(@Value("${search.msearch.enabled:false}") boolean batchSearches,
+                                     @Value("${search.msearch.window:2ms}") Duration batchWindow,
+                                     @Value("${search.msearch.max-batch:32}") int maxBatch) {
         RestClient restClient = RestClient.builder(
                 new HttpHost("localhost", 9200, "http")
         ).build();
@@ -38,6 +110,16 @@ public class ElasticsearchClientDocker {
         );
 
         this.client = new ElasticsearchClient(transport);
+        this.asyncClient = new ElasticsearchAsyncClient(transport);
+
+        if (batchSearches) {
+            this.batchSettings = new SearchBatcher.Settings(batchWindow, maxBatch);
+            this.batchScheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("msearch-window").daemon().factory());
+        } else {
+            this.batchSettings = null;
+            this.batchScheduler = null;
+        }
     }
 
 
@@ -56,7 +138,7 @@ public class ElasticsearchClientDocker {
                       "filter": {
                         "ru_stopwords": {
                           "type": "stop",
-                          "stopwords": "а,без,более,бы,был,была,были,было,быть,в,вам,вас,весь,во,вот,все,всего,всех,вы,где,да,даже,для,до,его,ее,если,есть,еще,же,за,здесь,и,из,или,им,их,к,как,ко,когда,кто,ли,либо,мне,может,мы,на,надо,наш,не,него,нее,нет,ни,них,но,ну,о,об,однако,он,она,они,оно,от,очень,по,под,при,с,со,так,также,такой,там,те,тем,то,того,тоже,той,только,том,ты,у,уже,хотя,чего,чей,чем,что,чтобы,чье,чья,эта,эти,это,я,a,an,and,are,as,at,be,but,by,for,if,in,into,is,it,no,not,of,on,or,such,that,the,their,then,there,these,they,this,to,was,will,with"
+                          "stopwords": "%s"
                         },
                         "search_synonym": {
                           "type": "synonym",
@@ -101,12 +183,18 @@ public class ElasticsearchClientDocker {
                       },
                       "tags": {
                         "type" : "keyword"
+                      },
+                      "sync_version": {
+                        "type": "long"
+                      },
+                      "deleted": {
+                        "type": "boolean"
                       }
                     }
                   }
                 }
                 
-                """;
+                """.formatted(String.join(",", SearchQueries.STOPWORDS));
 
         CreateIndexRequest request = CreateIndexRequest.of(b -> b
                 .index(indexName)
@@ -116,74 +204,485 @@ public class ElasticsearchClientDocker {
         client.indices().create(request);
     }
 
-    public List<Document> search(String indexName, String query, Integer cnt) throws IOException {
-        SearchResponse<Document> response = client.search(s -> s
-                        .index(indexName)
-                        .from(0)
-                        .size(cnt)
-                        .query(q -> q
-                                .bool(b -> {
-                                    String[] words = query.split("\\s+");
-                                    for (String word : words) {
-                                        if (!word.trim().isEmpty()) {
-                                            b.must(m -> m
-                                                    .multiMatch(mm -> mm
-                                                            .query(word)
-                                                            .fields("tags^3", "name^2", "text")
-                                                            .analyzer("my_search_analyzer")
-                                                            .fuzziness("AUTO")
-                                                    )
-                                            );
-                                        }
-                                    }
-                                    return b;
-                                })
-                        ),
-                Document.class
-        );
-
-        return response.hits().hits().stream()
+    public List<Document> search(String indexName, DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        return searchHits(indexName, dtoQuery, strategy, Document.class, true).hits().stream()
                 .map(hit -> hit.source())
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Same query as {@link #search}, but with {@code _source} disabled: only ids and scores travel back,
+     * plus facet counts when the query asks for them.
+     */
+    public IdSearchResponse searchIds(String indexName, DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        SearchHits<Void> result = searchHits(indexName, dtoQuery, strategy, Void.class, false);
+
+        List<DocumentScore> hits = result.hits().stream()
+                .map(hit -> new DocumentScore(hit.id(), hit.score()))
+                .collect(Collectors.toList());
+        return new IdSearchResponse(hits, null, result.facets());
+    }
 
-    public void bulkIndexDocuments(String indexName, List<Document> documents) throws IOException {
-        final int BATCH_SIZE = 300;
+    /**
+     * For {@link QueryStrategy#EXACT_THEN_FUZZY} the exact query runs first; only if it comes back short
+     * does a bounded fuzzy query fill the remaining slots, after the exact hits. Facets then come from the
+     * fuzzy query, which matches a superset of the exact one.
+     */
+    private <T> SearchHits<T> searchHits(String indexName, DtoQuery dtoQuery, QueryStrategy strategy,
+                                         Class<T> type, boolean withSource) throws IOException {
+        String query = dtoQuery.query();
+        int cnt = dtoQuery.cnt();
+        boolean facets = dtoQuery.wantsFacets();
 
-        for (int i = 0; i < documents.size(); i += BATCH_SIZE) {
-            int end = Math.min(documents.size(), i + BATCH_SIZE);
-            List<Document> batch = documents.subList(i, end);
+        if (strategy != QueryStrategy.EXACT_THEN_FUZZY) {
+            Query single = SearchQueries.filtered(SearchQueries.singlePass(strategy, query), dtoQuery);
+            return runQuery(indexName, single, cnt, type, withSource, facets);
+        }
 
-            BulkRequest.Builder br = new BulkRequest.Builder();
+        SearchHits<T> exact = runQuery(indexName, SearchQueries.filtered(SearchQueries.exact(query), dtoQuery),
+                cnt, type, withSource, facets);
+        if (exact.hits().size() >= cnt) {
+            return exact;
+        }
 
-            for (Document doc : batch) {
-                br.operations(op -> op
-                        .index(idx -> idx
-                                .index(indexName)
-                                .id(doc.getId().toString())
-                                .document(doc)
-                        )
-                );
+        SearchHits<T> fuzzy = runQuery(indexName, SearchQueries.filtered(SearchQueries.boundedFuzzy(query), dtoQuery),
+                cnt, type, withSource, facets);
+        Map<String, Hit<T>> merged = new LinkedHashMap<>();
+        for (Hit<T> hit : exact.hits()) {
+            merged.put(hit.id(), hit);
+        }
+        for (Hit<T> hit : fuzzy.hits()) {
+            if (merged.size() >= cnt) {
+                break;
             }
+            merged.putIfAbsent(hit.id(), hit);
+        }
+        return new SearchHits<>(new ArrayList<>(merged.values()), fuzzy.facets());
+    }
 
-            BulkResponse response = client.bulk(br.build());
+    private <T> SearchHits<T> runQuery(String indexName, Query query, int cnt, Class<T> type,
+                                       boolean withSource, boolean facets) throws IOException {
+        ResponseBody<T> response;
+        SearchBatcher<T> batcher = batcherFor(type);
+        if (batcher != null) {
+            response = batcher.search(RequestItem.of(i -> i
+                    .header(h -> h.index(indexName))
+                    .body(b -> {
+                        b.from(0)
+                                .size(cnt)
+                                .trackTotalHits(t -> t.enabled(false))
+                                .query(query);
+                        if (!withSource) {
+                            b.source(src -> src.fetch(false));
+                        }
+                        if (facets) {
+                            b.aggregations(SearchFacets.aggregations());
+                        }
+                        return b;
+                    })
+            ));
+        } else {
+            response = client.search(s -> {
+                        s.index(indexName)
+                                .from(0)
+                                .size(cnt)
+                                .trackTotalHits(t -> t.enabled(false))
+                                .query(query);
+                        if (!withSource) {
+                            s.source(src -> src.fetch(false));
+                        }
+                        if (facets) {
+                            s.aggregations(SearchFacets.aggregations());
+                        }
+                        return s;
+                    },
+                    type
+            );
+        }
+        return new SearchHits<>(response.hits().hits(), facets ? SearchFacets.read(response.aggregations()) : null);
+    }
+
+    /**
+     * One batcher per document type, since an {@code _msearch} response deserializes all hits as one type.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> SearchBatcher<T> batcherFor(Class<T> type) {
+        if (batchSettings == null) {
+            return null;
+        }
+        return (SearchBatcher<T>) batchers.computeIfAbsent(type,
+                t -> new SearchBatcher<>(asyncClient, type, batchSettings, batchScheduler));
+    }
+
+    /**
+     * One page of ids and scores. The first page opens a point-in-time; later pages continue after the
+     * last hit with {@code search_after} on (_score, _shard_doc), so every page costs the same regardless
+     * of depth. The PIT is closed once a short page shows the results are exhausted. Facets, if asked
+     * for, are computed on the first page only.
+     */
+    public IdSearchResponse searchPage(String indexName, DtoQuery dtoQuery, QueryStrategy strategy,
+                                       String keepAlive) throws IOException {
+        String cursor = dtoQuery.cursor();
+        int cnt = dtoQuery.cnt();
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        String queryHash = SearchCursor.queryHash(dtoQuery, strategy);
+        if (after != null) {
+            after.checkQuery(dtoQuery, strategy);
+        }
+        boolean facets = after == null && dtoQuery.wantsFacets();
+        String pitId = after != null
+                ? after.pitId()
+                : client.openPointInTime(p -> p.index(indexName).keepAlive(k -> k.time(keepAlive))).id();
 
-            if (response.errors()) {
-                System.err.println("Ошибки в батче " + (i/BATCH_SIZE + 1) + ":");
+        SearchResponse<Void> response;
+        try {
+            response = client.search(s -> {
+                        s.pit(p -> p.id(pitId).keepAlive(k -> k.time(keepAlive)))
+                                .size(cnt)
+                                .source(src -> src.fetch(false))
+                                .trackScores(true)
+                                .trackTotalHits(t -> t.enabled(false))
+                                .query(SearchQueries.filtered(SearchQueries.singlePass(strategy, dtoQuery.query()), dtoQuery))
+                                .sort(so -> so.score(sc -> sc.order(SortOrder.Desc)))
+                                .sort(so -> so.field(f -> f.field("_shard_doc").order(SortOrder.Asc)));
+                        if (after != null) {
+                            s.searchAfter(after.searchAfterValues());
+                        }
+                        if (facets) {
+                            s.aggregations(SearchFacets.aggregations());
+                        }
+                        return s;
+                    },
+                    Void.class
+            );
+        } catch (ElasticsearchException e) {
+            if (after != null && e.status() == 404) {
+                throw new IllegalArgumentException("Search cursor has expired", e);
             }
+            throw e;
+        }
+
+        List<Hit<Void>> hits = response.hits().hits();
+        String nextPitId = response.pitId() != null ? response.pitId() : pitId;
+
+        String nextCursor = null;
+        if (hits.size() == cnt) {
+            nextCursor = SearchCursor.of(nextPitId, hits.get(hits.size() - 1).sort(), queryHash).encode();
+        } else {
+            client.closePointInTime(c -> c.id(nextPitId));
+        }
+
+        List<DocumentScore> page = hits.stream()
+                .map(hit -> new DocumentScore(hit.id(), hit.score()))
+                .collect(Collectors.toList());
+        return new IdSearchResponse(page, nextCursor, facets ? SearchFacets.read(response.aggregations()) : null);
+    }
+
+    private record SearchHits<T>(List<Hit<T>> hits, Facets facets) {
+    }
 
 
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    /**
+     * A concurrent, self-throttling bulk indexer for {@code indexName}. Close it (or call
+     * {@link BulkIndexer#awaitCompletion()}) to wait for outstanding requests.
+     */
+    public BulkIndexer bulkIndexer(String indexName, BulkIndexer.Settings settings) {
+        return new BulkIndexer(asyncClient, indexName, settings);
+    }
+
+    public BulkIndexer.Stats bulkIndexDocuments(String indexName, List<Document> documents) {
+        try (BulkIndexer indexer = bulkIndexer(indexName, BulkIndexer.Settings.defaults())) {
+            for (Document document : documents) {
+                indexer.add(document);
             }
+            return indexer.awaitCompletion();
         }
+    }
+
 
-        System.out.println("Всего индексировано документов: " + documents.size());
+    /**
+     * Applies relayed product changes as one bulk request of scripted updates.
+     * An update only touches the fields the change carries; a delete marks the document {@code deleted}
+     * instead of removing it, and searches filter such tombstones out. A rebuild keeps a tombstone only
+     * while the catalog file still lists the product (see {@link #copySyncedDocuments}).
+     * Both are skipped by the script when the document already holds the same or a newer
+     * {@code sync_version}, so redelivered or reordered changes are no-ops.
+     * <p>
+     * A transient item failure (a conflict, back-pressure or a server error) fails the whole call with an
+     * {@link IOException} so the batch is retried. Items Elasticsearch refuses for good are reported with
+     * {@link RejectedProductChangesException} once nothing else needs a retry.
+     */
+    public void applyProductChanges(String indexName, List<ProductChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        BulkRequest.Builder br = new BulkRequest.Builder();
+        for (ProductChange change : changes) {
+            String script = change.isDelete() ? DELETE_SCRIPT : SYNC_SCRIPT;
+            Map<String, JsonData> params = change.isDelete()
+                    ? Map.of("version", JsonData.of(change.version()))
+                    : Map.of(
+                            "version", JsonData.of(change.version()),
+                            "fields", JsonData.of(syncedFields(change))
+                    );
+            br.operations(op -> op
+                    .update(u -> u
+                            .index(indexName)
+                            .id(change.productId())
+                            .action(a -> a
+                                    .script(sc -> sc.inline(i -> i.lang("painless").source(script).params(params)))
+                                    .scriptedUpsert(true)
+                                    .upsert(Map.of())
+                            )
+                    )
+            );
+        }
+
+        BulkResponse response = client.bulk(br.build());
+        if (!response.errors()) {
+            return;
+        }
+
+        List<String> transientFailures = new ArrayList<>();
+        List<Integer> rejected = new ArrayList<>();
+        String firstRejection = null;
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                continue;
+            }
+            String failure = item.id() + ": " + item.error().type() + " (" + item.status() + ")";
+            if (isTransient(item.status())) {
+                transientFailures.add(failure);
+            } else {
+                rejected.add(i);
+                if (firstRejection == null) {
+                    firstRejection = failure;
+                }
+            }
+        }
+        if (!transientFailures.isEmpty()) {
+            throw new IOException("Failed to apply " + transientFailures.size() + " product changes, e.g. "
+                    + transientFailures.get(0));
+        }
+        if (!rejected.isEmpty()) {
+            throw new RejectedProductChangesException(rejected, firstRejection);
+        }
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 409 || status == 429 || status >= 500;
+    }
+
+    private static Map<String, Object> syncedFields(ProductChange change) {
+        Map<String, Object> fields = new HashMap<>();
+        if (change.name() != null) {
+            fields.put("name", change.name());
+        }
+        Map<String, Object> data = change.data();
+        if (data != null) {
+            Object text = data.containsKey("text") ? data.get("text") : data.get("description");
+            if (text instanceof String) {
+                fields.put("text", text);
+            }
+            if (data.get("tags") instanceof List<?> tags) {
+                fields.put("tags", tags);
+            }
+            if (data.get("price") instanceof Number price) {
+                fields.put("price", price.doubleValue());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Creates {@code <alias>-<timestamp>} with the search mappings, tuned for a bulk load: no refreshes and
+     * no replicas until {@link #prepareForServing} is called.
+     */
+    public String createVersionedIndex(String alias) throws IOException {
+        String indexName = alias + "-" + INDEX_VERSION_FORMAT.format(Instant.now());
+        createSearchIndex(indexName);
+        client.indices().putSettings(p -> p
+                .index(indexName)
+                .settings(s -> s
+                        .refreshInterval(t -> t.time("-1"))
+                        .numberOfReplicas("0")
+                )
+        );
+        return indexName;
+    }
+
+    /**
+     * Restores normal refresh and replica settings, makes everything searchable and waits until the
+     * primaries are allocated.
+     */
+    public void prepareForServing(String indexName, int replicas, String refreshInterval) throws IOException {
+        client.indices().putSettings(p -> p
+                .index(indexName)
+                .settings(s -> s
+                        .refreshInterval(t -> t.time(refreshInterval))
+                        .numberOfReplicas(String.valueOf(replicas))
+                )
+        );
+        client.indices().refresh(r -> r.index(indexName));
+        client.cluster().health(h -> h
+                .index(indexName)
+                .waitForStatus(HealthStatus.Yellow)
+                .timeout(t -> t.time("60s"))
+        );
+    }
+
+    /**
+     * The highest {@code sync_version} in the index, or 0 when the catalog sync hasn't touched it. Only
+     * refreshed documents count, like for searches.
+     */
+    public long maxSyncVersion(String indexName) throws IOException {
+        SearchResponse<Void> response = client.search(s -> s
+                        .index(indexName)
+                        .size(0)
+                        .trackTotalHits(t -> t.enabled(false))
+                        .aggregations("sync_version", a -> a.max(m -> m.field("sync_version"))),
+                Void.class
+        );
+        Double max = response.aggregations().get("sync_version").max().value();
+        return max == null || max.isNaN() || max.isInfinite() ? 0 : max.longValue();
+    }
+
+    /**
+     * Copies every document the catalog sync has written from {@code source} into {@code dest}, replacing
+     * the catalog file's version of it. A tombstone is only carried over when {@code dest} holds the
+     * product, i.e. when the catalog file still lists it; tombstones of products the file no longer has are
+     * dropped, so deleted products don't pile up across rebuilds. Run while the sync is paused, so nothing
+     * applied to {@code source} is missed.
+     *
+     * @return the number of documents and tombstones carried over
+     */
+    public long copySyncedDocuments(String source, String dest) throws IOException {
+        ReindexResponse response = client.reindex(r -> r
+                .source(s -> s
+                        .index(source)
+                        .query(q -> q
+                                .bool(b -> b
+                                        .filter(f -> f.exists(e -> e.field("sync_version")))
+                                        .mustNot(n -> n.term(t -> t.field("deleted").value(true)))
+                                )
+                        )
+                )
+                .dest(d -> d.index(dest))
+                .waitForCompletion(true)
+        );
+        if (!response.failures().isEmpty()) {
+            throw new IOException("Failed to copy " + response.failures().size() + " synced documents, e.g. "
+                    + response.failures().get(0).id() + ": " + response.failures().get(0).cause().type());
+        }
+        long carried = response.total() == null ? 0 : response.total();
+
+        SearchResponse<Tombstone> page = client.search(s -> s
+                        .index(source)
+                        .query(q -> q.term(t -> t.field("deleted").value(true)))
+                        .source(src -> src.filter(f -> f.includes("sync_version")))
+                        .size(TOMBSTONE_PAGE_SIZE)
+                        .scroll(t -> t.time("1m")),
+                Tombstone.class
+        );
+        String scrollId = page.scrollId();
+        try {
+            List<Hit<Tombstone>> hits = page.hits().hits();
+            while (!hits.isEmpty()) {
+                carried += markDeleted(dest, hits);
+                String current = scrollId;
+                ScrollResponse<Tombstone> next = client.scroll(sc -> sc.scrollId(current).scroll(t -> t.time("1m")),
+                        Tombstone.class);
+                scrollId = next.scrollId();
+                hits = next.hits().hits();
+            }
+        } finally {
+            if (scrollId != null) {
+                String current = scrollId;
+                client.clearScroll(c -> c.scrollId(current));
+            }
+        }
+
+        client.indices().refresh(r -> r.index(dest));
+        return carried;
+    }
+
+    /**
+     * Applies the tombstones to the documents {@code indexName} already has; ids it doesn't have are skipped.
+     */
+    private long markDeleted(String indexName, List<Hit<Tombstone>> tombstones) throws IOException {
+        BulkRequest.Builder br = new BulkRequest.Builder();
+        for (Hit<Tombstone> hit : tombstones) {
+            Map<String, JsonData> params = Map.of("version", JsonData.of(hit.source().syncVersion()));
+            br.operations(op -> op
+                    .update(u -> u
+                            .index(indexName)
+                            .id(hit.id())
+                            .action(a -> a
+                                    .script(sc -> sc.inline(i -> i.lang("painless").source(DELETE_SCRIPT).params(params)))
+                            )
+                    )
+            );
+        }
+
+        long marked = 0;
+        for (BulkResponseItem item : client.bulk(br.build()).items()) {
+            if (item.error() == null) {
+                marked++;
+            } else if (item.status() != 404) {
+                throw new IOException("Failed to carry the tombstone of " + item.id() + " over: " + item.error().type());
+            }
+        }
+        return marked;
+    }
+
+    private record Tombstone(@JsonProperty("sync_version") long syncVersion) {
+    }
+
+    /**
+     * Concrete indices the alias points at; empty if the alias doesn't exist.
+     */
+    public Set<String> resolveAlias(String alias) throws IOException {
+        if (!client.indices().existsAlias(e -> e.name(alias)).value()) {
+            return Set.of();
+        }
+        return client.indices().getAlias(g -> g.name(alias)).result().keySet();
     }
 
+    /**
+     * Points {@code alias} at {@code indexName} only, in a single aliases call, so readers see either the
+     * old index or the new one and never neither. A pre-alias concrete index that carries the alias's
+     * name is dropped in the same call.
+     */
+    public void switchAlias(String alias, String indexName) throws IOException {
+        Set<String> current = resolveAlias(alias);
+        boolean legacyConcreteIndex = current.isEmpty() && checkIfIndexExists(alias);
+
+        client.indices().updateAliases(u -> {
+            u.actions(a -> a.add(add -> add.index(indexName).alias(alias)));
+            for (String old : current) {
+                if (!old.equals(indexName)) {
+                    u.actions(a -> a.remove(remove -> remove.index(old).alias(alias)));
+                }
+            }
+            if (legacyConcreteIndex) {
+                u.actions(a -> a.removeIndex(remove -> remove.index(alias)));
+            }
+            return u;
+        });
+    }
+
+    /**
+     * Versioned indices created for {@code alias}, oldest first.
+     */
+    public List<String> versionedIndices(String alias) throws IOException {
+        return client.indices().get(g -> g.index(alias + "-*").allowNoIndices(true))
+                .result().keySet().stream()
+                .sorted()
+                .collect(Collectors.toList());
+    }
 
     public void deleteIndex(String indexName) throws IOException {
         DeleteIndexResponse response = client.indices().delete(d -> d.index(indexName));
@@ -191,6 +690,9 @@ public class ElasticsearchClientDocker {
     }
 
     public void close() throws IOException {
+        if (batchScheduler != null) {
+            batchScheduler.shutdown();
+        }
         client._transport().close();
     }
 
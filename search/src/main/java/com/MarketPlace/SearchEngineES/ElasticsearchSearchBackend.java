@@ -0,0 +1,132 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Searches the {@link SearchEngine#INDEX_NAME} alias on the Elasticsearch cluster. A catalog load fills
+ * a new versioned index and points the alias at it on commit, so a half-built index is never searchable.
+ * <p>
+ * The {@link #generation()} is read from the cluster every {@code search.generation.refresh-interval}, so
+ * all search instances report the same value for the same index contents.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+public class ElasticsearchSearchBackend implements SearchBackend {
+
+    private final ElasticsearchClientDocker esClient;
+    private final BulkIndexer.Settings bulkSettings;
+    private final int replicas;
+    private final String refreshInterval;
+    private final String pitKeepAlive;
+
+    private volatile String generation;
+
+    public ElasticsearchSearchBackend(ElasticsearchClientDocker esClient,
+                                      BulkIndexer.Settings bulkSettings,
+                                      @Value("${search.index.replicas:1}") int replicas,
+                                      @Value("${search.index.refresh-interval:1s}") String refreshInterval,
+                                      @Value("${search.pit.keep-alive:1m}") String pitKeepAlive) {
+        this.esClient = esClient;
+        this.bulkSettings = bulkSettings;
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.pitKeepAlive = pitKeepAlive;
+    }
+
+    @Override
+    public List<Document> search(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        return esClient.search(SearchEngine.INDEX_NAME, dtoQuery, strategy);
+    }
+
+    @Override
+    public IdSearchResponse searchIds(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        return esClient.searchIds(SearchEngine.INDEX_NAME, dtoQuery, strategy);
+    }
+
+    @Override
+    public IdSearchResponse searchPage(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        return esClient.searchPage(SearchEngine.INDEX_NAME, dtoQuery, strategy, pitKeepAlive);
+    }
+
+    @Override
+    public String generation() {
+        return generation;
+    }
+
+    /**
+     * The indices behind the alias and the newest applied {@code sync_version}: a rebuild changes the
+     * former, every synced change (deletes included, see {@link ElasticsearchClientDocker#applyProductChanges})
+     * the latter.
+     */
+    @Scheduled(fixedDelayString = "${search.generation.refresh-interval:1s}")
+    public void refreshGeneration() {
+        try {
+            Set<String> indices = esClient.resolveAlias(SearchEngine.INDEX_NAME);
+            if (indices.isEmpty() && !esClient.checkIfIndexExists(SearchEngine.INDEX_NAME)) {
+                return;
+            }
+            String index = indices.isEmpty() ? SearchEngine.INDEX_NAME : String.join(",", new TreeSet<>(indices));
+            generation = index + "/" + esClient.maxSyncVersion(SearchEngine.INDEX_NAME);
+        } catch (Exception e) {
+            log.debug("Could not read the index generation", e);
+        }
+    }
+
+    @Override
+    public CatalogLoad beginCatalogLoad() throws IOException {
+        if (esClient.checkIfIndexExists(SearchEngine.INDEX_NAME)) {
+            return null;
+        }
+
+        String newIndex = esClient.createVersionedIndex(SearchEngine.INDEX_NAME);
+        BulkIndexer indexer = esClient.bulkIndexer(newIndex, bulkSettings);
+        return new CatalogLoad() {
+            @Override
+            public void add(Document document) {
+                indexer.add(document);
+            }
+
+            @Override
+            public BulkIndexer.Stats stats() {
+                return indexer.stats();
+            }
+
+            @Override
+            public BulkIndexer.Stats awaitWrites() {
+                return indexer.awaitCompletion();
+            }
+
+            @Override
+            public BulkIndexer.Stats commit() throws IOException {
+                BulkIndexer.Stats stats = indexer.awaitCompletion();
+                indexer.close();
+                esClient.prepareForServing(newIndex, replicas, refreshInterval);
+                esClient.switchAlias(SearchEngine.INDEX_NAME, newIndex);
+                return stats;
+            }
+
+            @Override
+            public void abort() {
+                indexer.close();
+                try {
+                    esClient.deleteIndex(newIndex);
+                } catch (Exception e) {
+                    log.error("Could not remove partially loaded index {}", newIndex, e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.MarketPlace.SearchEngineES;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
+import org.apache.lucene.analysis.snowball.SnowballFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.synonym.SolrSynonymParser;
+import org.apache.lucene.analysis.synonym.SynonymGraphFilter;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.tartarus.snowball.ext.RussianStemmer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+
+/**
+ * The Lucene counterpart of {@code my_search_analyzer}: standard tokenizer, lowercase, the shared
+ * stopword list, synonyms and the Russian snowball stemmer, in the same order as the Elasticsearch
+ * index settings.
+ */
+public final class LuceneAnalysis {
+
+    private static final CharArraySet STOPWORDS = CharArraySet.unmodifiableSet(new CharArraySet(SearchQueries.STOPWORDS, false));
+
+    private LuceneAnalysis() {
+    }
+
+    /**
+     * @param synonyms    may be null to analyze without synonyms
+     * @param forIndexing flattens the synonym graph, since the index can't store token graphs; query
+     *                    parsing keeps the graph so multi-word synonyms stay phrases
+     */
+    public static Analyzer analyzer(SynonymMap synonyms, boolean forIndexing) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream stream = new StopFilter(new LowerCaseFilter(source), STOPWORDS);
+                if (synonyms != null) {
+                    stream = new SynonymGraphFilter(stream, synonyms, true);
+                }
+                stream = new SnowballFilter(stream, new RussianStemmer());
+                if (synonyms != null && forIndexing) {
+                    stream = new FlattenGraphFilter(stream);
+                }
+                return new TokenStreamComponents(source, stream);
+            }
+
+            @Override
+            protected TokenStream normalize(String fieldName, TokenStream in) {
+                return new LowerCaseFilter(in);
+            }
+        };
+    }
+
+    /**
+     * Parses synonym rules in the Solr format of {@code synonyms.txt}. Like Elasticsearch, the rules are
+     * analyzed with the filters that precede the synonym filter, so they match the stream they are applied to.
+     */
+    public static SynonymMap synonyms(Reader rules) throws IOException {
+        Analyzer ruleAnalyzer = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                return new TokenStreamComponents(source, new StopFilter(new LowerCaseFilter(source), STOPWORDS));
+            }
+        };
+
+        SolrSynonymParser parser = new SolrSynonymParser(true, true, ruleAnalyzer);
+        try {
+            parser.parse(rules);
+        } catch (ParseException e) {
+            throw new IOException("Malformed synonym rules at line " + e.getErrorOffset(), e);
+        } finally {
+            ruleAnalyzer.close();
+        }
+        return parser.build();
+    }
+}
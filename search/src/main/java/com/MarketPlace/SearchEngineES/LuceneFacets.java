@@ -0,0 +1,91 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Facets;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the same facets as {@link SearchFacets} over every matching document: the most frequent tags
+ * and a price histogram, read from doc values. Tags are counted per segment ordinal and only resolved to
+ * strings when the collector moves to the next segment.
+ */
+final class LuceneFacets extends SimpleCollector {
+
+    private final Map<String, Long> tagCounts = new HashMap<>();
+    private final TreeMap<Double, Long> priceCounts = new TreeMap<>();
+
+    private SortedSetDocValues tags;
+    private NumericDocValues prices;
+    private long[] ordCounts;
+
+    @Override
+    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        flushTags();
+        tags = DocValues.getSortedSet(context.reader(), LuceneQueries.TAGS);
+        prices = DocValues.getNumeric(context.reader(), LuceneQueries.PRICE);
+        ordCounts = new long[Math.toIntExact(tags.getValueCount())];
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        if (tags.advanceExact(doc)) {
+            for (int i = 0; i < tags.docValueCount(); i++) {
+                ordCounts[Math.toIntExact(tags.nextOrd())]++;
+            }
+        }
+        if (prices.advanceExact(doc)) {
+            double price = Double.longBitsToDouble(prices.longValue());
+            double bucket = Math.floor(price / SearchFacets.PRICE_INTERVAL) * SearchFacets.PRICE_INTERVAL;
+            priceCounts.merge(bucket, 1L, Long::sum);
+        }
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return ScoreMode.COMPLETE_NO_SCORES;
+    }
+
+    /**
+     * Tags ordered by count, then alphabetically, as a terms aggregation orders them.
+     */
+    Facets facets() throws IOException {
+        flushTags();
+
+        List<Facets.TagCount> topTags = tagCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(SearchFacets.TOP_TAGS)
+                .map(e -> new Facets.TagCount(e.getKey(), e.getValue()))
+                .toList();
+
+        List<Facets.PriceRange> ranges = new ArrayList<>(priceCounts.size());
+        for (Map.Entry<Double, Long> bucket : priceCounts.entrySet()) {
+            ranges.add(new Facets.PriceRange(bucket.getKey(), bucket.getKey() + SearchFacets.PRICE_INTERVAL, bucket.getValue()));
+        }
+        return new Facets(topTags, ranges);
+    }
+
+    private void flushTags() throws IOException {
+        if (ordCounts == null) {
+            return;
+        }
+        for (int ord = 0; ord < ordCounts.length; ord++) {
+            if (ordCounts[ord] > 0) {
+                tagCounts.merge(tags.lookupOrd(ord).utf8ToString(), ordCounts[ord], Long::sum);
+            }
+        }
+        ordCounts = null;
+    }
+}
@@ -0,0 +1,157 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lucene versions of the {@link SearchQueries} builders, field for field: a multi_match over
+ * {@code tags^3}, {@code name^2} and {@code text} becomes a disjunction-max of per-field queries, and
+ * {@code fuzziness: AUTO} allows no edits up to 2 characters, one up to 5 and two beyond.
+ */
+final class LuceneQueries {
+
+    static final String ID = "id";
+    static final String NAME = "name";
+    static final String TEXT = "text";
+    static final String TAGS = "tags";
+    static final String PRICE = "price";
+
+    private static final float TAGS_BOOST = 3.0f;
+    private static final float NAME_BOOST = 2.0f;
+
+    private final QueryBuilder exactBuilder;
+    private final QueryBuilder legacyBuilder;
+    private final QueryBuilder boundedBuilder;
+
+    LuceneQueries(Analyzer analyzer) {
+        this.exactBuilder = new QueryBuilder(analyzer);
+        this.legacyBuilder = new FuzzyQueryBuilder(analyzer, FuzzyQuery.defaultPrefixLength, FuzzyQuery.defaultMaxExpansions);
+        this.boundedBuilder = new FuzzyQueryBuilder(analyzer, SearchQueries.FUZZY_PREFIX_LENGTH, SearchQueries.FUZZY_MAX_EXPANSIONS);
+    }
+
+    /**
+     * See {@link SearchQueries#singlePass}.
+     */
+    Query singlePass(QueryStrategy strategy, String query) {
+        return switch (strategy) {
+            case LEGACY -> legacy(query);
+            case BOUNDED_FUZZY -> boundedFuzzy(query);
+            case EXACT_THEN_FUZZY -> new BooleanQuery.Builder()
+                    .add(exact(query), BooleanClause.Occur.SHOULD)
+                    .add(boundedFuzzy(query), BooleanClause.Occur.SHOULD)
+                    .setMinimumNumberShouldMatch(1)
+                    .build();
+        };
+    }
+
+    /**
+     * See {@link SearchQueries#filtered}; tags are matched exactly, like the keyword field in Elasticsearch.
+     */
+    Query filtered(Query query, DtoQuery dtoQuery) {
+        if (!dtoQuery.hasFilters()) {
+            return query;
+        }
+        BooleanQuery.Builder b = new BooleanQuery.Builder().add(query, BooleanClause.Occur.MUST);
+        if (dtoQuery.tags() != null && !dtoQuery.tags().isEmpty()) {
+            List<BytesRef> tags = dtoQuery.tags().stream().map(BytesRef::new).toList();
+            b.add(new TermInSetQuery(TAGS, tags), BooleanClause.Occur.FILTER);
+        }
+        if (dtoQuery.minPrice() != null || dtoQuery.maxPrice() != null) {
+            double min = dtoQuery.minPrice() != null ? dtoQuery.minPrice() : Double.NEGATIVE_INFINITY;
+            double max = dtoQuery.maxPrice() != null ? dtoQuery.maxPrice() : Double.POSITIVE_INFINITY;
+            b.add(DoublePoint.newRangeQuery(PRICE, min, max), BooleanClause.Occur.FILTER);
+        }
+        return b.build();
+    }
+
+    Query legacy(String query) {
+        return perWord(query, legacyBuilder);
+    }
+
+    Query boundedFuzzy(String query) {
+        return perWord(query, boundedBuilder);
+    }
+
+    /**
+     * Every word must match in one of the fields without edits; a phrase match on the name adds a boost.
+     */
+    Query exact(String query) {
+        BooleanQuery.Builder b = new BooleanQuery.Builder().add(perWord(query, exactBuilder), BooleanClause.Occur.MUST);
+        Query phrase = exactBuilder.createPhraseQuery(NAME, query);
+        if (phrase != null) {
+            b.add(new BoostQuery(phrase, SearchQueries.PHRASE_BOOST), BooleanClause.Occur.SHOULD);
+        }
+        return b.build();
+    }
+
+    private static Query perWord(String query, QueryBuilder builder) {
+        BooleanQuery.Builder b = new BooleanQuery.Builder();
+        int clauses = 0;
+        for (String word : query.split("\\s+")) {
+            if (word.trim().isEmpty()) {
+                continue;
+            }
+            List<Query> fields = new ArrayList<>(3);
+            addField(fields, builder.createBooleanQuery(TAGS, word), TAGS_BOOST);
+            addField(fields, builder.createBooleanQuery(NAME, word), NAME_BOOST);
+            addField(fields, builder.createBooleanQuery(TEXT, word), 1.0f);
+            // A word made only of stopwords analyzes to nothing and doesn't constrain the match
+            if (!fields.isEmpty()) {
+                b.add(new DisjunctionMaxQuery(fields, 0.0f), BooleanClause.Occur.MUST);
+                clauses++;
+            }
+        }
+        return clauses == 0 ? new MatchNoDocsQuery("no searchable words") : b.build();
+    }
+
+    private static void addField(List<Query> fields, Query query, float boost) {
+        if (query != null) {
+            fields.add(boost == 1.0f ? query : new BoostQuery(query, boost));
+        }
+    }
+
+    static int autoEdits(String term) {
+        int length = term.codePointCount(0, term.length());
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Turns every analyzed term into a fuzzy query, the way a fuzzy match query does in Elasticsearch.
+     */
+    private static final class FuzzyQueryBuilder extends QueryBuilder {
+
+        private final int prefixLength;
+        private final int maxExpansions;
+
+        FuzzyQueryBuilder(Analyzer analyzer, int prefixLength, int maxExpansions) {
+            super(analyzer);
+            this.prefixLength = prefixLength;
+            this.maxExpansions = maxExpansions;
+        }
+
+        @Override
+        protected Query newTermQuery(Term term, float boost) {
+            int edits = autoEdits(term.text());
+            Query query = edits == 0
+                    ? new TermQuery(term)
+                    : new FuzzyQuery(term, edits, prefixLength, maxExpansions, true);
+            return boost == 1.0f ? query : new BoostQuery(query, boost);
+        }
+    }
+}
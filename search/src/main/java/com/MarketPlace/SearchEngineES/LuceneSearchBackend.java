@@ -0,0 +1,359 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.DocumentScore;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.Facets;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves search from a Lucene index inside the search process, for catalogs small enough that the
+ * network hop to a cluster dominates latency and for deployments without Elasticsearch. Documents are
+ * analyzed with {@link LuceneAnalysis} and queried with {@link LuceneQueries}, the counterparts of the
+ * Elasticsearch index settings and {@link SearchQueries}.
+ * <p>
+ * The index lives in memory unless {@code search.lucene.path} names a directory. It is filled from the
+ * catalog file at startup; incremental product sync and blue/green reindexing are Elasticsearch-only.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.backend", havingValue = "lucene")
+public class LuceneSearchBackend implements SearchBackend {
+
+    private static final String CURSOR_PREFIX = "lucene:";
+    private static final Set<String> ID_ONLY = Set.of(LuceneQueries.ID);
+
+    private final LuceneQueries queries;
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public LuceneSearchBackend(@Value("${search.lucene.path:}") String path,
+                               @Value("${search.lucene.synonyms:}") Resource synonymRules,
+                               @Value("${search.lucene.ram-buffer-mb:64}") double ramBufferMb) throws IOException {
+        SynonymMap synonyms = loadSynonyms(synonymRules);
+        this.queries = new LuceneQueries(LuceneAnalysis.analyzer(synonyms, false));
+        this.directory = path.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(path));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(LuceneAnalysis.analyzer(synonyms, true))
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(ramBufferMb));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @Override
+    public List<Document> search(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            StoredFields storedFields = searcher.storedFields();
+            List<Document> documents = new ArrayList<>();
+            for (ScoreDoc hit : searchHits(searcher, dtoQuery, strategy).hits()) {
+                documents.add(toDocument(storedFields.document(hit.doc)));
+            }
+            return documents;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * The embedded index only changes at startup, and each search instance builds its own, so there is no
+     * generation shared by all instances to report.
+     */
+    @Override
+    public String generation() {
+        return null;
+    }
+
+    @Override
+    public IdSearchResponse searchIds(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopHits result = searchHits(searcher, dtoQuery, strategy);
+            return new IdSearchResponse(toScores(searcher, result.hits()), null, result.facets());
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Pages continue after the (score, doc) of the previous page's last hit. Doc ids are only stable
+     * within one reader, so the cursor carries the reader version and is rejected once the index has
+     * been reloaded.
+     */
+    @Override
+    public IdSearchResponse searchPage(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        String cursor = dtoQuery.cursor();
+        int cnt = dtoQuery.cnt();
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        String queryHash = SearchCursor.queryHash(dtoQuery, strategy);
+        if (after != null) {
+            after.checkQuery(dtoQuery, strategy);
+        }
+        boolean facets = after == null && dtoQuery.wantsFacets();
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            String readerVersion = CURSOR_PREFIX + ((DirectoryReader) searcher.getIndexReader()).getVersion();
+            ScoreDoc afterDoc = after == null ? null : afterDoc(after, readerVersion);
+
+            Query query = queries.filtered(queries.singlePass(strategy, dtoQuery.query()), dtoQuery);
+            TopHits page = runQuery(searcher, query, cnt, afterDoc, facets);
+
+            String nextCursor = null;
+            if (page.hits().size() == cnt) {
+                ScoreDoc last = page.hits().get(cnt - 1);
+                nextCursor = new SearchCursor(readerVersion, List.of((double) last.score, last.doc), queryHash).encode();
+            }
+            return new IdSearchResponse(toScores(searcher, page.hits()), nextCursor, page.facets());
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private static ScoreDoc afterDoc(SearchCursor cursor, String readerVersion) {
+        if (!readerVersion.equals(cursor.pitId())) {
+            throw new IllegalArgumentException("Search cursor has expired");
+        }
+        List<Object> values = cursor.searchAfter();
+        if (values == null || values.size() != 2
+                || !(values.get(0) instanceof Number score) || !(values.get(1) instanceof Number doc)) {
+            throw new IllegalArgumentException("Malformed search cursor");
+        }
+        return new ScoreDoc(doc.intValue(), score.floatValue());
+    }
+
+    /**
+     * Mirrors the Elasticsearch backend: for {@link QueryStrategy#EXACT_THEN_FUZZY} a short exact result
+     * is topped up with bounded fuzzy hits, and facets come from the fuzzy query.
+     */
+    private TopHits searchHits(IndexSearcher searcher, DtoQuery dtoQuery, QueryStrategy strategy) throws IOException {
+        String query = dtoQuery.query();
+        int cnt = dtoQuery.cnt();
+        boolean facets = dtoQuery.wantsFacets();
+
+        if (strategy != QueryStrategy.EXACT_THEN_FUZZY) {
+            return runQuery(searcher, queries.filtered(queries.singlePass(strategy, query), dtoQuery), cnt, null, facets);
+        }
+
+        TopHits exact = runQuery(searcher, queries.filtered(queries.exact(query), dtoQuery), cnt, null, facets);
+        if (exact.hits().size() >= cnt) {
+            return exact;
+        }
+
+        TopHits fuzzy = runQuery(searcher, queries.filtered(queries.boundedFuzzy(query), dtoQuery), cnt, null, facets);
+        Map<Integer, ScoreDoc> merged = new LinkedHashMap<>();
+        for (ScoreDoc hit : exact.hits()) {
+            merged.put(hit.doc, hit);
+        }
+        for (ScoreDoc hit : fuzzy.hits()) {
+            if (merged.size() >= cnt) {
+                break;
+            }
+            merged.putIfAbsent(hit.doc, hit);
+        }
+        return new TopHits(new ArrayList<>(merged.values()), fuzzy.facets());
+    }
+
+    /**
+     * Top hits and facets in one pass over the matches. Without facets, total hits aren't counted past
+     * the page size, so non-competitive documents can be skipped.
+     */
+    private static TopHits runQuery(IndexSearcher searcher, Query query, int cnt, ScoreDoc after,
+                                    boolean facets) throws IOException {
+        TopScoreDocCollector top = TopScoreDocCollector.create(cnt, after, cnt);
+        if (!facets) {
+            searcher.search(query, top);
+            return new TopHits(List.of(top.topDocs().scoreDocs), null);
+        }
+
+        LuceneFacets facetCollector = new LuceneFacets();
+        searcher.search(query, MultiCollector.wrap(top, facetCollector));
+        return new TopHits(List.of(top.topDocs().scoreDocs), facetCollector.facets());
+    }
+
+    private static List<DocumentScore> toScores(IndexSearcher searcher, List<ScoreDoc> hits) throws IOException {
+        StoredFields storedFields = searcher.storedFields();
+        List<DocumentScore> scores = new ArrayList<>(hits.size());
+        for (ScoreDoc hit : hits) {
+            String id = storedFields.document(hit.doc, ID_ONLY).get(LuceneQueries.ID);
+            scores.add(new DocumentScore(id, (double) hit.score));
+        }
+        return scores;
+    }
+
+    private record TopHits(List<ScoreDoc> hits, Facets facets) {
+    }
+
+    @Override
+    public CatalogLoad beginCatalogLoad() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            if (searcher.getIndexReader().numDocs() > 0) {
+                return null;
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+
+        long startedNanos = System.nanoTime();
+        LongAdder indexed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        return new CatalogLoad() {
+            private volatile long finishedNanos;
+
+            @Override
+            public void add(Document document) {
+                try {
+                    writer.addDocument(toLucene(document));
+                    indexed.increment();
+                    bytes.add(BulkIndexer.estimateBytes(document));
+                } catch (IllegalArgumentException e) {
+                    // e.g. a tag longer than Lucene's term limit; Elasticsearch would reject the item too
+                    failed.increment();
+                    log.warn("Skipping document {}: {}", document.getId(), e.getMessage());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public BulkIndexer.Stats stats() {
+                long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+                Duration elapsed = Duration.ofNanos(end - startedNanos);
+                double seconds = elapsed.toNanos() / 1e9;
+                return new BulkIndexer.Stats(indexed.sum(), failed.sum(), 0, bytes.sum(), 1, elapsed,
+                        seconds > 0 ? indexed.sum() / seconds : 0);
+            }
+
+            @Override
+            public BulkIndexer.Stats awaitWrites() {
+                // add() writes synchronously, so there is nothing outstanding
+                return stats();
+            }
+
+            @Override
+            public BulkIndexer.Stats commit() throws IOException {
+                writer.commit();
+                searcherManager.maybeRefreshBlocking();
+                finishedNanos = System.nanoTime();
+                return stats();
+            }
+
+            @Override
+            public void abort() {
+                try {
+                    writer.deleteAll();
+                    writer.commit();
+                    searcherManager.maybeRefreshBlocking();
+                } catch (IOException e) {
+                    log.error("Could not discard partially loaded Lucene index", e);
+                }
+            }
+        };
+    }
+
+    private static org.apache.lucene.document.Document toLucene(Document document) {
+        org.apache.lucene.document.Document doc = new org.apache.lucene.document.Document();
+        doc.add(new StringField(LuceneQueries.ID, document.getId(), Field.Store.YES));
+        if (document.getName() != null) {
+            doc.add(new TextField(LuceneQueries.NAME, document.getName(), Field.Store.YES));
+        }
+        if (document.getText() != null) {
+            doc.add(new TextField(LuceneQueries.TEXT, document.getText(), Field.Store.YES));
+        }
+        if (document.getTags() != null) {
+            for (String tag : document.getTags()) {
+                if (tag != null) {
+                    doc.add(new StringField(LuceneQueries.TAGS, tag, Field.Store.YES));
+                    doc.add(new SortedSetDocValuesField(LuceneQueries.TAGS, new BytesRef(tag)));
+                }
+            }
+        }
+        if (document.getPrice() != null) {
+            double price = document.getPrice();
+            doc.add(new DoublePoint(LuceneQueries.PRICE, price));
+            doc.add(new DoubleDocValuesField(LuceneQueries.PRICE, price));
+            doc.add(new StoredField(LuceneQueries.PRICE, price));
+        }
+        return doc;
+    }
+
+    private static Document toDocument(org.apache.lucene.document.Document doc) {
+        IndexableField price = doc.getField(LuceneQueries.PRICE);
+        return new Document(
+                doc.get(LuceneQueries.ID),
+                doc.get(LuceneQueries.TEXT),
+                doc.get(LuceneQueries.NAME),
+                doc.getValues(LuceneQueries.TAGS),
+                price == null ? null : price.numericValue().doubleValue()
+        );
+    }
+
+    private static SynonymMap loadSynonyms(Resource rules) throws IOException {
+        if (rules == null) {
+            return null;
+        }
+        // Searching without the configured synonyms would silently diverge from Elasticsearch, so don't start
+        if (!rules.exists()) {
+            throw new FileNotFoundException("Synonym rules " + rules
+                    + " not found; leave search.lucene.synonyms empty to analyze without synonyms");
+        }
+        try (Reader reader = new InputStreamReader(rules.getInputStream(), StandardCharsets.UTF_8)) {
+            SynonymMap synonyms = LuceneAnalysis.synonyms(reader);
+            log.info("Loaded {} synonym entries from {}", synonyms.words.size(), rules);
+            return synonyms;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+}
@@ -0,0 +1,115 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.ProductChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Applies product changes from the catalog topic to the index, one bulk request per polled batch.
+ * Offsets are committed only after the listener returns, and a failed batch is retried as a whole until it
+ * succeeds (see {@link com.MarketPlace.SearchEngineES.config.CatalogSyncConfig});
+ * replays are harmless because every update is versioned (see {@link ElasticsearchClientDocker#applyProductChanges}).
+ * A change that can never be applied, because its payload doesn't parse or Elasticsearch rejects it, is
+ * reported as {@link BatchListenerFailedException} with its position: the changes before it are committed,
+ * the error handler moves it to the dead-letter topic and the rest of the batch is delivered again.
+ * <p>
+ * Consumption starts only once {@link CatalogLoader} has made the index searchable, so no change is written
+ * to an index that doesn't exist yet; until then changes wait on the topic. {@link ReindexService} pauses it
+ * while it carries synced documents over into a rebuilt index.
+ */
+@Slf4j
+@Component
+// Only the Elasticsearch backend is kept in sync; the embedded Lucene index is rebuilt from the catalog file
+@ConditionalOnExpression("${catalog.sync.enabled:false} and '${search.backend:elasticsearch}' == 'elasticsearch'")
+public class ProductChangeListener {
+
+    static final String LISTENER_ID = "catalog-sync";
+
+    private static final long PAUSE_POLL_MS = 50;
+
+    private final ElasticsearchClientDocker esClient;
+    private final KafkaListenerEndpointRegistry registry;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ProductChangeListener(ElasticsearchClientDocker esClient, KafkaListenerEndpointRegistry registry) {
+        this.esClient = esClient;
+        this.registry = registry;
+    }
+
+    @KafkaListener(id = LISTENER_ID,
+            topics = "${catalog.sync.topic:catalog.products}",
+            groupId = "${catalog.sync.group-id:search}",
+            autoStartup = "false",
+            batch = "true")
+    public void onChanges(List<String> payloads) throws IOException {
+        List<ProductChange> changes = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            ProductChange change;
+            try {
+                change = mapper.readValue(payloads.get(i), ProductChange.class);
+            } catch (JsonProcessingException e) {
+                // Not retryable for the error handler, like every MessageConversionException
+                throw new BatchListenerFailedException("Unreadable product change",
+                        new MessageConversionException("Unreadable product change", e), i);
+            }
+            if (change.productId() == null || !(change.isDelete() || "UPSERT".equals(change.op()))) {
+                throw new BatchListenerFailedException("Invalid product change",
+                        new MessageConversionException("Product change without a product id or a known op"), i);
+            }
+            changes.add(change);
+        }
+        try {
+            esClient.applyProductChanges(SearchEngine.INDEX_NAME, changes);
+        } catch (RejectedProductChangesException e) {
+            throw new BatchListenerFailedException(e.getMessage(), e, e.positions().get(0));
+        }
+        log.debug("Applied {} product changes", changes.size());
+    }
+
+    public void start() {
+        container().start();
+    }
+
+    /**
+     * Stops applying changes and waits until the batch in progress, if any, has been applied.
+     *
+     * @throws TimeoutException if the listener is still busy after {@code timeout}; it is resumed again
+     */
+    public void pause(Duration timeout) throws InterruptedException, TimeoutException {
+        MessageListenerContainer container = container();
+        if (!container.isRunning()) {
+            return;
+        }
+        container.pause();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!container.isContainerPaused()) {
+            if (System.nanoTime() - deadline > 0) {
+                container.resume();
+                throw new TimeoutException("Catalog sync did not pause within " + timeout);
+            }
+            Thread.sleep(PAUSE_POLL_MS);
+        }
+    }
+
+    public void resume() {
+        container().resume();
+    }
+
+    private MessageListenerContainer container() {
+        return registry.getListenerContainer(LISTENER_ID);
+    }
+}
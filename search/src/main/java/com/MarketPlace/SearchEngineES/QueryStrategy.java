@@ -0,0 +1,24 @@
+package com.MarketPlace.SearchEngineES;
+
+/**
+ * How a free-text query is turned into an Elasticsearch query.
+ */
+public enum QueryStrategy {
+
+    /**
+     * One fuzzy {@code multi_match} per word with unbounded expansions; the original behaviour.
+     */
+    LEGACY,
+
+    /**
+     * A single exact {@code cross_fields} query with a phrase boost on the name. A bounded fuzzy query
+     * runs only when the exact one returns fewer hits than requested.
+     */
+    EXACT_THEN_FUZZY,
+
+    /**
+     * Per-word fuzzy matching as in {@link #LEGACY}, but the first character must match and each term
+     * expands to at most a handful of candidates.
+     */
+    BOUNDED_FUZZY
+}
@@ -1,35 +1,39 @@
 package com.MarketPlace.SearchEngineES;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 public class ReadJson {
     ObjectMapper objectMapper = new ObjectMapper();
 
-    private final static String PATH = "E:\\University\\course_4\\ScriptLP\\marketPlace\\search\\src\\main\\resources\\data\\documents_list.json";
-
-    public List<Map<String, Object>> readJson() {
-
-        try {
-            List<Map<String, Object>> mapList = objectMapper.readValue(
-                    new File(PATH),
-                    new TypeReference<>() {
-                    }
-            );
-            return mapList;
-        }
-        catch (IOException e){
-            System.out.println(e);
+    private static final TypeReference<Map<String, Object>> ITEM_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Reads a JSON array of documents one element at a time, so only the current element is in memory.
+     *
+     * @return the number of elements read
+     */
+    public long forEachItem(InputStream in, Consumer<Map<String, Object>> consumer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of documents");
+            }
+            long count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(objectMapper.readValue(parser, ITEM_TYPE));
+                count++;
+            }
+            return count;
         }
-        return null;
     }
-
-
 }
@@ -0,0 +1,229 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.ReindexStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blue/green rebuild of the search index behind the {@link SearchEngine#INDEX_NAME} alias.
+ * <ol>
+ *     <li>a new versioned index is created with the current mappings, without replicas or refreshes, and
+ *     filled from the catalog at a reduced bulk concurrency so live queries keep their latency;</li>
+ *     <li>replicas and refresh are restored and recent live queries are replayed against it;</li>
+ *     <li>the catalog sync is paused and every document it has written to the old index is copied over,
+ *     so changes made in Postgres since the catalog file was exported survive the rebuild;</li>
+ *     <li>the alias is moved in one aliases call and the sync resumes, now writing to the new index;</li>
+ *     <li>older versions are deleted, keeping {@code search.reindex.keep-previous} for rollback.</li>
+ * </ol>
+ * Until the switch, searches keep hitting the old index; a failed run deletes its new index and leaves
+ * the alias untouched. Changes relayed while the sync is paused wait on the topic and are applied after it
+ * resumes.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+public class ReindexService {
+
+    public enum Phase {IDLE, BUILDING, WARMING, SWITCHING, CLEANING, DONE, FAILED}
+
+    private static final int WARMUP_HITS = 20;
+    private static final Duration SYNC_PAUSE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final ElasticsearchClientDocker esClient;
+    private final CatalogReader catalogReader;
+    private final SuggestService suggestService;
+    private final SearchEngine searchEngine;
+    private final ObjectProvider<ProductChangeListener> catalogSync;
+    private final BulkIndexer.Settings bulkSettings;
+    private final int replicas;
+    private final String refreshInterval;
+    private final int keepPrevious;
+    private final long maxFailed;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Phase phase = Phase.IDLE;
+    private volatile String index;
+    private volatile List<String> previousIndices = List.of();
+    private volatile List<String> removedIndices = List.of();
+    private volatile LongAdder documentsRead = new LongAdder();
+    private volatile BulkIndexer indexer;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ReindexService(ElasticsearchClientDocker esClient,
+                          CatalogReader catalogReader,
+                          SuggestService suggestService,
+                          SearchEngine searchEngine,
+                          ObjectProvider<ProductChangeListener> catalogSync,
+                          BulkIndexer.Settings bulkSettings,
+                          @Value("${search.reindex.max-concurrency:2}") int maxConcurrency,
+                          @Value("${search.index.replicas:1}") int replicas,
+                          @Value("${search.index.refresh-interval:1s}") String refreshInterval,
+                          @Value("${search.reindex.keep-previous:1}") int keepPrevious,
+                          @Value("${search.reindex.max-failed:0}") long maxFailed) {
+        this.esClient = esClient;
+        this.catalogReader = catalogReader;
+        this.suggestService = suggestService;
+        this.searchEngine = searchEngine;
+        this.catalogSync = catalogSync;
+        this.bulkSettings = bulkSettings.withMaxConcurrency(maxConcurrency);
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.keepPrevious = keepPrevious;
+        this.maxFailed = maxFailed;
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     *
+     * @throws IllegalStateException if one is already running
+     */
+    public ReindexStatus start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reindex is already running");
+        }
+        index = null;
+        previousIndices = List.of();
+        removedIndices = List.of();
+        documentsRead = new LongAdder();
+        indexer = null;
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        phase = Phase.BUILDING;
+
+        Thread.ofPlatform().name("reindex").daemon().start(this::run);
+        return status();
+    }
+
+    public ReindexStatus status() {
+        BulkIndexer.Stats stats = indexer == null ? null : indexer.stats();
+        return new ReindexStatus(
+                phase.name(),
+                index,
+                previousIndices,
+                removedIndices,
+                documentsRead.sum(),
+                stats == null ? 0 : stats.indexed(),
+                stats == null ? 0 : stats.failed(),
+                stats == null ? 0 : stats.docsPerSecond(),
+                startedAt,
+                finishedAt,
+                error
+        );
+    }
+
+    private void run() {
+        String alias = SearchEngine.INDEX_NAME;
+        ProductChangeListener sync = catalogSync.getIfAvailable();
+        boolean switched = false;
+        boolean paused = false;
+        try {
+            previousIndices = List.copyOf(esClient.resolveAlias(alias));
+            index = esClient.createVersionedIndex(alias);
+            log.info("Reindex into {} started, alias {} currently on {}", index, alias, previousIndices);
+
+            BulkIndexer target = esClient.bulkIndexer(index, bulkSettings);
+            indexer = target;
+            SuggestService.CatalogTerms terms = new SuggestService.CatalogTerms();
+            LongAdder read = documentsRead;
+            catalogReader.forEachDocument(document -> {
+                terms.add(document);
+                target.add(document);
+                read.increment();
+            });
+            BulkIndexer.Stats stats = target.awaitCompletion();
+            target.close();
+            if (stats.failed() > maxFailed) {
+                throw new IllegalStateException(stats.failed() + " documents failed to index");
+            }
+
+            esClient.prepareForServing(index, replicas, refreshInterval);
+
+            phase = Phase.WARMING;
+            warmUp(index);
+
+            phase = Phase.SWITCHING;
+            if (sync != null) {
+                sync.pause(SYNC_PAUSE_TIMEOUT);
+                paused = true;
+            }
+            if (esClient.checkIfIndexExists(alias)) {
+                long copied = esClient.copySyncedDocuments(alias, index);
+                log.info("Carried {} synced documents over into {}", copied, index);
+            }
+            esClient.switchAlias(alias, index);
+            switched = true;
+            if (paused) {
+                sync.resume();
+                paused = false;
+            }
+            suggestService.rebuildFromCatalog(terms);
+
+            phase = Phase.CLEANING;
+            removedIndices = removeOldVersions(alias, index);
+
+            finishedAt = Instant.now();
+            phase = Phase.DONE;
+            log.info("Reindex done: alias {} now on {}, removed {}", alias, index, removedIndices);
+        } catch (Exception e) {
+            finishedAt = Instant.now();
+            error = e.getMessage();
+            phase = Phase.FAILED;
+            log.error("Reindex into {} failed", index, e);
+            if (indexer != null) {
+                indexer.close();
+            }
+            if (index != null && !switched) {
+                try {
+                    esClient.deleteIndex(index);
+                } catch (Exception deleteError) {
+                    log.error("Could not remove abandoned index {}", index, deleteError);
+                }
+            }
+        } finally {
+            if (paused) {
+                sync.resume();
+            }
+            running.set(false);
+        }
+    }
+
+    /**
+     * Replays recent live queries so the first real searches after the switch don't pay for cold caches.
+     */
+    private void warmUp(String indexName) {
+        QueryStrategy strategy = searchEngine.defaultStrategy();
+        for (String query : searchEngine.recentQueries()) {
+            try {
+                esClient.searchIds(indexName, new DtoQuery(query, WARMUP_HITS), strategy);
+            } catch (Exception e) {
+                log.debug("Warm-up query '{}' failed", query, e);
+            }
+        }
+    }
+
+    private List<String> removeOldVersions(String alias, String current) throws Exception {
+        List<String> older = new ArrayList<>(esClient.versionedIndices(alias));
+        older.remove(current);
+
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < older.size() - keepPrevious; i++) {
+            esClient.deleteIndex(older.get(i));
+            removed.add(older.get(i));
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,26 @@
+package com.MarketPlace.SearchEngineES;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Elasticsearch refused some product changes for good (a mapping or parse error, say), so retrying them
+ * can't help. Transient item failures are reported as a plain {@link IOException} instead.
+ */
+public class RejectedProductChangesException extends IOException {
+
+    private final List<Integer> positions;
+
+    public RejectedProductChangesException(List<Integer> positions, String firstError) {
+        super("Elasticsearch rejected " + positions.size() + " product changes, e.g. " + firstError);
+        this.positions = List.copyOf(positions);
+    }
+
+    /**
+     * Indices of the rejected changes in the list passed to
+     * {@link ElasticsearchClientDocker#applyProductChanges}, ascending.
+     */
+    public List<Integer> positions() {
+        return positions;
+    }
+}
@@ -0,0 +1,67 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The index the search endpoints run against, selected with {@code search.backend}: an external
+ * Elasticsearch cluster ({@code elasticsearch}, the default) or an in-process Lucene index ({@code lucene}).
+ * Both apply the same analysis chain and the same per-strategy queries.
+ */
+public interface SearchBackend {
+
+    List<Document> search(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException;
+
+    /**
+     * Same hits as {@link #search}, but only ids and scores, plus facet counts when the query asks for them.
+     */
+    IdSearchResponse searchIds(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException;
+
+    /**
+     * One page of a cursor-based walk over all hits. A cursor the backend can no longer continue from,
+     * or one issued for a different query, strategy or filters, is rejected with {@link IllegalArgumentException}.
+     */
+    IdSearchResponse searchPage(DtoQuery dtoQuery, QueryStrategy strategy) throws IOException;
+
+    /**
+     * Value identifying what the index currently holds, {@code <indices>/<sync_version>}: it grows when a
+     * rebuild is switched in (the index name) or a synced product change becomes searchable (the version),
+     * so callers can drop results cached under an older value. Null when the backend can't tell.
+     */
+    String generation();
+
+    /**
+     * Starts filling an empty index from the catalog, or returns null when the index is already populated.
+     * Nothing added to the load is searchable before {@link CatalogLoad#commit()}.
+     */
+    CatalogLoad beginCatalogLoad() throws IOException;
+
+    interface CatalogLoad {
+
+        void add(Document document);
+
+        /**
+         * Progress so far; safe to call from other threads while documents are being added.
+         */
+        BulkIndexer.Stats stats();
+
+        /**
+         * Waits for outstanding writes without making anything searchable; the returned counts are final.
+         */
+        BulkIndexer.Stats awaitWrites() throws IOException;
+
+        /**
+         * Waits for outstanding writes and makes the loaded documents searchable.
+         */
+        BulkIndexer.Stats commit() throws IOException;
+
+        /**
+         * Discards everything added so far; the index stays as it was before the load.
+         */
+        void abort();
+    }
+}
@@ -0,0 +1,143 @@
+package com.MarketPlace.SearchEngineES;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces searches issued by concurrent callers into {@code _msearch} requests.
+ * <ul>
+ *     <li>the first search of an empty batch starts the window; when it elapses the batch is sent with
+ *     whatever has arrived, so no search waits longer than the window before it goes out;</li>
+ *     <li>a batch that reaches {@code maxBatch} searches is sent right away by the caller that filled it;</li>
+ *     <li>each caller gets its own item of the response, and a failed item fails only that caller.</li>
+ * </ul>
+ */
+@Slf4j
+public class SearchBatcher<T> {
+
+    public record Settings(Duration window, int maxBatch) {
+    }
+
+    private record Pending<T>(RequestItem item, CompletableFuture<ResponseBody<T>> result) {
+    }
+
+    private final ElasticsearchAsyncClient client;
+    private final Class<T> type;
+    private final Settings settings;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending<T>> batch = new ArrayList<>();
+
+    SearchBatcher(ElasticsearchAsyncClient client, Class<T> type, Settings settings, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.type = type;
+        this.settings = settings;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues the search and blocks until its response arrives.
+     */
+    public ResponseBody<T> search(RequestItem item) throws IOException {
+        Pending<T> pending = new Pending<>(item, new CompletableFuture<>());
+
+        List<Pending<T>> full = null;
+        lock.lock();
+        try {
+            batch.add(pending);
+            if (batch.size() == 1) {
+                List<Pending<T>> opened = batch;
+                scheduler.schedule(() -> sendIfCurrent(opened), settings.window().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (batch.size() >= settings.maxBatch()) {
+                full = batch;
+                batch = new ArrayList<>();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw cause instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Sends the batch the window was opened for, unless it already went out because it filled up.
+     */
+    private void sendIfCurrent(List<Pending<T>> opened) {
+        lock.lock();
+        try {
+            if (batch != opened) {
+                return;
+            }
+            batch = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        send(opened);
+    }
+
+    private void send(List<Pending<T>> searches) {
+        MsearchRequest request = MsearchRequest.of(m -> {
+            for (Pending<T> pending : searches) {
+                m.searches(pending.item());
+            }
+            return m;
+        });
+
+        CompletableFuture<MsearchResponse<T>> response;
+        try {
+            response = client.msearch(request, type);
+        } catch (RuntimeException e) {
+            searches.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        response.whenComplete((msearch, error) -> {
+            if (error != null) {
+                log.debug("_msearch of {} searches failed", searches.size(), error);
+                searches.forEach(pending -> pending.result().completeExceptionally(error));
+                return;
+            }
+            List<MultiSearchResponseItem<T>> items = msearch.responses();
+            for (int i = 0; i < searches.size(); i++) {
+                CompletableFuture<ResponseBody<T>> result = searches.get(i).result();
+                if (i >= items.size()) {
+                    result.completeExceptionally(new IOException("_msearch returned " + items.size()
+                            + " responses for " + searches.size() + " searches"));
+                } else if (items.get(i).isResult()) {
+                    result.complete(items.get(i).result());
+                } else {
+                    result.completeExceptionally(new ElasticsearchException("msearch", items.get(i).failure()));
+                }
+            }
+        });
+    }
+}
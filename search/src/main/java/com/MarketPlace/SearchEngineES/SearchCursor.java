@@ -0,0 +1,97 @@
+package com.MarketPlace.SearchEngineES;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Opaque pagination cursor: the point-in-time id plus the sort values of the last hit of the page,
+ * serialized as base64url JSON.
+ * <p>
+ * {@code search_after} scores only make sense for the query that produced them, so the cursor also
+ * carries a fingerprint of the query, strategy and filters, and is rejected when a later page is
+ * requested with different ones.
+ */
+public record SearchCursor(String pitId, List<Object> searchAfter, String queryHash) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static SearchCursor of(String pitId, List<FieldValue> sortValues, String queryHash) {
+        List<Object> values = new ArrayList<>(sortValues.size());
+        for (FieldValue value : sortValues) {
+            values.add(value._get());
+        }
+        return new SearchCursor(pitId, values, queryHash);
+    }
+
+    /**
+     * Hash of what decides the hits and their order: the normalized query text, the strategy, the tags
+     * (as a set) and the price range.
+     */
+    public static String queryHash(DtoQuery dtoQuery, QueryStrategy strategy) {
+        String query = dtoQuery.query() == null
+                ? ""
+                : String.join(" ", dtoQuery.query().trim().toLowerCase(Locale.ROOT).split("\\s+"));
+        List<String> tags = dtoQuery.tags() == null ? List.of() : dtoQuery.tags().stream().sorted().distinct().toList();
+        String key = String.join("\u0000", query, String.valueOf(strategy), String.join("\u0001", tags),
+                String.valueOf(dtoQuery.minPrice()), String.valueOf(dtoQuery.maxPrice()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was issued for a different query
+     */
+    public void checkQuery(DtoQuery dtoQuery, QueryStrategy strategy) {
+        if (!Objects.equals(queryHash, queryHash(dtoQuery, strategy))) {
+            throw new IllegalArgumentException("Search cursor was issued for a different query, strategy or filters");
+        }
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            return MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), SearchCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed search cursor", e);
+        }
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<FieldValue> searchAfterValues() {
+        List<FieldValue> values = new ArrayList<>(searchAfter.size());
+        for (Object value : searchAfter) {
+            if (value instanceof Double || value instanceof Float) {
+                values.add(FieldValue.of(((Number) value).doubleValue()));
+            } else if (value instanceof Number number) {
+                values.add(FieldValue.of(number.longValue()));
+            } else if (value instanceof Boolean bool) {
+                values.add(FieldValue.of(bool));
+            } else {
+                values.add(FieldValue.of(String.valueOf(value)));
+            }
+        }
+        return values;
+    }
+}
@@ -3,51 +3,85 @@ package com.MarketPlace.SearchEngineES;
 
 import com.MarketPlace.SearchEngineES.dto.Document;
 import com.MarketPlace.SearchEngineES.dto.DtoQuery;
-import jakarta.annotation.PostConstruct;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 @Service
 public class SearchEngine {
-    private final ElasticsearchClientDocker esClient = new ElasticsearchClientDocker();
-    private final String INDEX_NAME = "search-documents";
+    /**
+     * Read alias; it points at the current versioned index (see {@link ReindexService}).
+     */
+    static final String INDEX_NAME = "search-documents";
 
-    public List<Document> getDocumentList(DtoQuery dtoQuery) throws IOException {
-        var a = esClient.search(INDEX_NAME, dtoQuery.query(), dtoQuery.cnt());
-        return a;
-    }
+    private static final int RECENT_QUERIES = 64;
 
-    @PostConstruct
-    public void startEngine() throws IOException {
+    private final SearchBackend backend;
 
-        if (!esClient.checkIfIndexExists(INDEX_NAME)) {
-            esClient.createSearchIndex(INDEX_NAME);
+    private final SuggestService suggestService;
 
-            ReadJson readJson = new ReadJson();
+    // Last queries served, replayed against a freshly built index to warm it up before the alias switch
+    private final AtomicReferenceArray<String> recentQueries = new AtomicReferenceArray<>(RECENT_QUERIES);
+    private final AtomicInteger recentQueryCursor = new AtomicInteger();
 
-            List<Map<String, Object>> mapList = readJson.readJson();
+    @Value("${search.query.strategy:LEGACY}")
+    private QueryStrategy defaultStrategy;
 
-            List<Document> documents = new ArrayList<>();
+    public SearchEngine(SearchBackend backend, SuggestService suggestService) {
+        this.backend = backend;
+        this.suggestService = suggestService;
+    }
 
-            for (Map<String, Object> item : mapList) {
-                String id = (String) item.get("id");
-                String name = (String) item.get("name");
-                String text = (String) item.get("text");
+    public List<Document> getDocumentList(DtoQuery dtoQuery) throws IOException {
+        recordQuery(dtoQuery.query());
+        var a = backend.search(dtoQuery, strategyOf(dtoQuery));
+        return a;
+    }
 
-                List<String> tags = (ArrayList<String>) item.get("tags");
+    public IdSearchResponse getIdList(DtoQuery dtoQuery) throws IOException {
+        recordQuery(dtoQuery.query());
+        // Read before searching, so the hits are never older than the generation they are reported with
+        String generation = backend.generation();
+        return backend.searchIds(dtoQuery, strategyOf(dtoQuery)).withGeneration(generation);
+    }
 
-                Document document = new Document(id, text, name, tags.toArray(String[]::new));
-                documents.add(document);
+    public IdSearchResponse getPage(DtoQuery dtoQuery) throws IOException {
+        if (dtoQuery.cursor() == null) {
+            recordQuery(dtoQuery.query());
+        }
+        return backend.searchPage(dtoQuery, strategyOf(dtoQuery));
+    }
+
+    List<String> recentQueries() {
+        List<String> queries = new ArrayList<>(RECENT_QUERIES);
+        for (int i = 0; i < RECENT_QUERIES; i++) {
+            String query = recentQueries.get(i);
+            if (query != null) {
+                queries.add(query);
             }
+        }
+        return queries;
+    }
 
-            esClient.bulkIndexDocuments(INDEX_NAME, documents);
+    QueryStrategy defaultStrategy() {
+        return defaultStrategy;
+    }
 
+    private void recordQuery(String query) {
+        suggestService.recordSearch(query);
+        if (query != null && !query.isBlank()) {
+            recentQueries.set(Math.floorMod(recentQueryCursor.getAndIncrement(), RECENT_QUERIES), query);
         }
     }
-}
 
+    private QueryStrategy strategyOf(DtoQuery dtoQuery) {
+        return dtoQuery.strategy() != null ? dtoQuery.strategy() : defaultStrategy;
+    }
+}
@@ -0,0 +1,52 @@
+package com.MarketPlace.SearchEngineES;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.MarketPlace.SearchEngineES.dto.Facets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregations computed in the same round trip as the hits: the most frequent tags and a price histogram.
+ */
+public final class SearchFacets {
+
+    static final String TAGS = "tags";
+    static final String PRICE = "price";
+
+    static final int TOP_TAGS = 20;
+    static final double PRICE_INTERVAL = 1000.0;
+
+    private SearchFacets() {
+    }
+
+    public static Map<String, Aggregation> aggregations() {
+        return Map.of(
+                TAGS, Aggregation.of(a -> a.terms(t -> t.field(TAGS).size(TOP_TAGS))),
+                PRICE, Aggregation.of(a -> a.histogram(h -> h.field(PRICE).interval(PRICE_INTERVAL).minDocCount(1)))
+        );
+    }
+
+    public static Facets read(Map<String, Aggregate> aggregations) {
+        List<Facets.TagCount> tags = new ArrayList<>();
+        Aggregate tagAggregate = aggregations.get(TAGS);
+        if (tagAggregate != null && tagAggregate.isSterms()) {
+            for (StringTermsBucket bucket : tagAggregate.sterms().buckets().array()) {
+                tags.add(new Facets.TagCount(bucket.key().stringValue(), bucket.docCount()));
+            }
+        }
+
+        List<Facets.PriceRange> prices = new ArrayList<>();
+        Aggregate priceAggregate = aggregations.get(PRICE);
+        if (priceAggregate != null && priceAggregate.isHistogram()) {
+            for (HistogramBucket bucket : priceAggregate.histogram().buckets().array()) {
+                prices.add(new Facets.PriceRange(bucket.key(), bucket.key() + PRICE_INTERVAL, bucket.docCount()));
+            }
+        }
+        return new Facets(tags, prices);
+    }
+}
@@ -0,0 +1,154 @@
+package com.MarketPlace.SearchEngineES;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.json.JsonData;
+import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+
+import java.util.List;
+
+/**
+ * Query builders for each {@link QueryStrategy}.
+ */
+public final class SearchQueries {
+
+    static final List<String> FIELDS = List.of("tags^3", "name^2", "text");
+    static final String ANALYZER = "my_search_analyzer";
+
+    /**
+     * Russian and English stopwords of the search analyzer, shared by the Elasticsearch index settings and
+     * the embedded Lucene analyzer.
+     */
+    static final List<String> STOPWORDS = List.of(
+            "а", "без", "более", "бы", "был", "была", "были", "было", "быть", "в", "вам", "вас", "весь", "во",
+            "вот", "все", "всего", "всех", "вы", "где", "да", "даже", "для", "до", "его", "ее", "если",
+            "есть", "еще", "же", "за", "здесь", "и", "из", "или", "им", "их", "к", "как", "ко", "когда",
+            "кто", "ли", "либо", "мне", "может", "мы", "на", "надо", "наш", "не", "него", "нее", "нет", "ни",
+            "них", "но", "ну", "о", "об", "однако", "он", "она", "они", "оно", "от", "очень", "по", "под",
+            "при", "с", "со", "так", "также", "такой", "там", "те", "тем", "то", "того", "тоже", "той",
+            "только", "том", "ты", "у", "уже", "хотя", "чего", "чей", "чем", "что", "чтобы", "чье", "чья",
+            "эта", "эти", "это", "я", "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if",
+            "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their", "then",
+            "there", "these", "they", "this", "to", "was", "will", "with"
+    );
+
+    static final int FUZZY_PREFIX_LENGTH = 1;
+    static final int FUZZY_MAX_EXPANSIONS = 10;
+    static final float PHRASE_BOOST = 2.0f;
+
+    private SearchQueries() {
+    }
+
+    /**
+     * The query to run when only one round trip is possible, e.g. for point-in-time paging.
+     * {@link QueryStrategy#EXACT_THEN_FUZZY} becomes one query where exact matches outscore fuzzy ones.
+     */
+    public static Query singlePass(QueryStrategy strategy, String query) {
+        return switch (strategy) {
+            case LEGACY -> legacy(query);
+            case BOUNDED_FUZZY -> boundedFuzzy(query);
+            case EXACT_THEN_FUZZY -> Query.of(q -> q
+                    .bool(b -> b
+                            .should(exact(query))
+                            .should(boundedFuzzy(query))
+                            .minimumShouldMatch("1")
+                    )
+            );
+        };
+    }
+
+    /**
+     * Wraps the scoring query with the request's tag and price filters and leaves out products deleted by
+     * the catalog sync (see {@link ElasticsearchClientDocker#applyProductChanges}). Filter clauses don't
+     * score and are cached per segment by Elasticsearch, so repeated facet selections are cheap.
+     */
+    public static Query filtered(Query query, DtoQuery dtoQuery) {
+        return Query.of(q -> q
+                .bool(b -> {
+                    b.must(query);
+                    b.mustNot(n -> n.term(t -> t.field("deleted").value(true)));
+                    if (dtoQuery.tags() != null && !dtoQuery.tags().isEmpty()) {
+                        List<FieldValue> tags = dtoQuery.tags().stream().map(FieldValue::of).toList();
+                        b.filter(f -> f.terms(t -> t.field("tags").terms(v -> v.value(tags))));
+                    }
+                    if (dtoQuery.minPrice() != null || dtoQuery.maxPrice() != null) {
+                        b.filter(f -> f.range(r -> {
+                            r.field("price");
+                            if (dtoQuery.minPrice() != null) {
+                                r.gte(JsonData.of(dtoQuery.minPrice()));
+                            }
+                            if (dtoQuery.maxPrice() != null) {
+                                r.lte(JsonData.of(dtoQuery.maxPrice()));
+                            }
+                            return r;
+                        }));
+                    }
+                    return b;
+                })
+        );
+    }
+
+    public static Query legacy(String query) {
+        return perWordFuzzy(query, false);
+    }
+
+    public static Query boundedFuzzy(String query) {
+        return perWordFuzzy(query, true);
+    }
+
+    /**
+     * All words must match somewhere across the fields, scored as one combined field; documents whose
+     * name contains the query as a phrase get an extra boost.
+     */
+    public static Query exact(String query) {
+        return Query.of(q -> q
+                .bool(b -> b
+                        .must(m -> m
+                                .multiMatch(mm -> mm
+                                        .query(query)
+                                        .fields(FIELDS)
+                                        .type(TextQueryType.CrossFields)
+                                        .operator(Operator.And)
+                                        .analyzer(ANALYZER)
+                                )
+                        )
+                        .should(s -> s
+                                .matchPhrase(mp -> mp
+                                        .field("name")
+                                        .query(query)
+                                        .analyzer(ANALYZER)
+                                        .boost(PHRASE_BOOST)
+                                )
+                        )
+                )
+        );
+    }
+
+    private static Query perWordFuzzy(String query, boolean bounded) {
+        return Query.of(q -> q
+                .bool(b -> {
+                    String[] words = query.split("\\s+");
+                    for (String word : words) {
+                        if (!word.trim().isEmpty()) {
+                            b.must(m -> m
+                                    .multiMatch(mm -> {
+                                        mm.query(word)
+                                                .fields(FIELDS)
+                                                .analyzer(ANALYZER)
+                                                .fuzziness("AUTO");
+                                        if (bounded) {
+                                            mm.prefixLength(FUZZY_PREFIX_LENGTH)
+                                                    .maxExpansions(FUZZY_MAX_EXPANSIONS);
+                                        }
+                                        return mm;
+                                    })
+                            );
+                        }
+                    }
+                    return b;
+                })
+        );
+    }
+}
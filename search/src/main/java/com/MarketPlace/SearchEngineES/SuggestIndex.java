@@ -0,0 +1,171 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable in-memory prefix index over suggestion terms (product names and tags).
+ * <p>
+ * Every term is reachable from the start of each of its words, so "pro" finds "iPhone 15 Pro". Keys are
+ * kept in one sorted array and a prefix is a contiguous range found by binary search. Ranges for one- and
+ * two-character prefixes can cover a large part of the catalog, so their top results are computed once at
+ * build time; longer prefixes select from a small range at query time.
+ */
+public final class SuggestIndex {
+
+    static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    private final String[] keys;
+    private final int[] targets;
+    private final String[] texts;
+    private final long[] weights;
+    private final int topK;
+    private final Map<String, int[]> precomputed;
+
+    private SuggestIndex(String[] keys, int[] targets, String[] texts, long[] weights, int topK) {
+        this.keys = keys;
+        this.targets = targets;
+        this.texts = texts;
+        this.weights = weights;
+        this.topK = topK;
+        this.precomputed = precompute();
+    }
+
+    public static SuggestIndex empty() {
+        return new SuggestIndex(new String[0], new int[0], new String[0], new long[0], 0);
+    }
+
+    /**
+     * @param terms display text of each suggestion mapped to its popularity weight
+     * @param topK  how many results are kept per precomputed short prefix
+     */
+    public static SuggestIndex build(Map<String, Long> terms, int topK) {
+        String[] texts = new String[terms.size()];
+        long[] weights = new long[terms.size()];
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+
+        int target = 0;
+        for (Map.Entry<String, Long> term : terms.entrySet()) {
+            texts[target] = term.getKey();
+            weights[target] = term.getValue();
+
+            String normalized = normalize(term.getKey());
+            Set<String> suffixes = new HashSet<>();
+            int from = 0;
+            while (from < normalized.length()) {
+                suffixes.add(normalized.substring(from));
+                int space = normalized.indexOf(' ', from);
+                if (space < 0) {
+                    break;
+                }
+                from = space + 1;
+            }
+            for (String suffix : suffixes) {
+                entries.add(Map.entry(suffix, target));
+            }
+            target++;
+        }
+
+        entries.sort(Map.Entry.comparingByKey());
+        String[] keys = new String[entries.size()];
+        int[] targets = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).getKey();
+            targets[i] = entries.get(i).getValue();
+        }
+        return new SuggestIndex(keys, targets, texts, weights, topK);
+    }
+
+    public static String normalize(String text) {
+        String trimmed = text.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? trimmed : String.join(" ", trimmed.split("\\s+"));
+    }
+
+    public List<Suggestion> lookup(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int[] top = normalized.length() <= PRECOMPUTED_PREFIX_LENGTH && limit <= topK
+                ? precomputed.get(normalized)
+                : topTargets(lowerBound(normalized), normalized, limit);
+        if (top == null) {
+            return Collections.emptyList();
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+        for (int i = 0; i < top.length && i < limit; i++) {
+            suggestions.add(new Suggestion(texts[top[i]], weights[top[i]]));
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    private Map<String, int[]> precompute() {
+        Map<String, int[]> result = new HashMap<>();
+        if (topK == 0) {
+            return result;
+        }
+        for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH; length++) {
+            int i = 0;
+            while (i < keys.length) {
+                if (keys[i].length() < length) {
+                    i++;
+                    continue;
+                }
+                String prefix = keys[i].substring(0, length);
+                result.put(prefix, topTargets(i, prefix, topK));
+                while (i < keys.length && keys[i].startsWith(prefix)) {
+                    i++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Highest-weight distinct suggestions among the keys starting at {@code from} that share {@code prefix}.
+     */
+    private int[] topTargets(int from, String prefix, int limit) {
+        Comparator<Integer> byWeight = Comparator.comparingLong(t -> weights[t]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, byWeight);
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+            int target = targets[i];
+            if (!seen.add(target)) {
+                continue;
+            }
+            heap.offer(target);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        int[] top = new int[heap.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = heap.poll();
+        }
+        return top;
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.dto.Document;
+import com.MarketPlace.SearchEngineES.dto.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Typeahead over product names and tags.
+ * <p>
+ * A term's popularity is the number of products carrying it plus the number of searches issued for it.
+ * Lookups read an immutable {@link SuggestIndex} snapshot; search counts are folded in by a periodic
+ * rebuild so the hot path never takes a lock.
+ */
+@Service
+public class SuggestService {
+
+    private final int topK;
+
+    // Terms and their display text are swapped together, so readers never see one without the other
+    private volatile Catalog catalog = new Catalog(Map.of(), Map.of());
+    private final Map<String, LongAdder> searchCounts = new ConcurrentHashMap<>();
+
+    private volatile SuggestIndex index = SuggestIndex.empty();
+
+    public SuggestService(@Value("${search.suggest.top-k:10}") int topK) {
+        this.topK = topK;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return index.lookup(prefix, limit);
+    }
+
+    /**
+     * Replaces the catalog terms with the ones collected while reading the catalog and rebuilds the index.
+     */
+    public void rebuildFromCatalog(CatalogTerms terms) {
+        catalog = new Catalog(terms.terms, terms.displays);
+        refresh();
+    }
+
+    /**
+     * Counts a search towards popularity. Only queries that equal a known term count, so arbitrary
+     * user input never becomes a suggestion.
+     */
+    public void recordSearch(String query) {
+        if (query == null) {
+            return;
+        }
+        String key = SuggestIndex.normalize(query);
+        if (catalog.terms().containsKey(key)) {
+            searchCounts.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest.refresh-interval:5m}",
+            initialDelayString = "${search.suggest.refresh-interval:5m}")
+    public synchronized void refresh() {
+        Catalog current = catalog;
+        Map<String, Long> weighted = new HashMap<>(current.terms().size() * 2);
+        for (Map.Entry<String, Long> term : current.terms().entrySet()) {
+            LongAdder searches = searchCounts.get(term.getKey());
+            long weight = term.getValue() + (searches == null ? 0 : searches.sum());
+            weighted.put(current.displays().getOrDefault(term.getKey(), term.getKey()), weight);
+        }
+        index = SuggestIndex.build(weighted, topK);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private record Catalog(Map<String, Long> terms, Map<String, String> displays) {
+    }
+
+    /**
+     * Collects names and tags document by document, so the catalog never has to be held in memory.
+     */
+    public static final class CatalogTerms {
+        private final Map<String, Long> terms = new HashMap<>();
+        private final Map<String, String> displays = new HashMap<>();
+
+        public void add(Document document) {
+            addTerm(document.getName());
+            if (document.getTags() != null) {
+                for (String tag : document.getTags()) {
+                    addTerm(tag);
+                }
+            }
+        }
+
+        private void addTerm(String text) {
+            if (text == null || text.isBlank()) {
+                return;
+            }
+            String key = SuggestIndex.normalize(text);
+            terms.merge(key, 1L, Long::sum);
+            displays.putIfAbsent(key, text.trim());
+        }
+    }
+}
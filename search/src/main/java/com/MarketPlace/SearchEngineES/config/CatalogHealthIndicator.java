@@ -0,0 +1,31 @@
+package com.MarketPlace.SearchEngineES.config;
+
+import com.MarketPlace.SearchEngineES.CatalogLoader;
+import com.MarketPlace.SearchEngineES.dto.CatalogLoadProgress;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reported as {@code catalog}; part of the readiness group, so the node takes traffic only once the
+ * catalog is indexed.
+ */
+@Component("catalog")
+public class CatalogHealthIndicator implements HealthIndicator {
+    private final CatalogLoader catalogLoader;
+
+    public CatalogHealthIndicator(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    @Override
+    public Health health() {
+        CatalogLoadProgress progress = catalogLoader.progress();
+        Health.Builder builder = catalogLoader.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("phase", progress.phase())
+                .withDetail("documentsRead", progress.documentsRead())
+                .withDetail("indexed", progress.indexed())
+                .build();
+    }
+}
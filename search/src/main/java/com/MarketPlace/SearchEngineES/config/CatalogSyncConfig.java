@@ -0,0 +1,52 @@
+package com.MarketPlace.SearchEngineES.config;
+
+import com.MarketPlace.SearchEngineES.RejectedProductChangesException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+@ConditionalOnExpression("${catalog.sync.enabled:false} and '${search.backend:elasticsearch}' == 'elasticsearch'")
+public class CatalogSyncConfig {
+
+    /**
+     * Picked up by the auto-configured listener container factory. A batch that fails for a transient
+     * reason (Elasticsearch unreachable, overloaded or failing) is retried with exponential backoff until it
+     * succeeds and its offsets are never committed before that, so an outage delays product changes instead
+     * of dropping them. A change that can never be applied (an unreadable payload or one Elasticsearch
+     * rejects) is not retried: it goes to {@code catalog.sync.dead-letter-topic} and the changes behind it
+     * carry on.
+     */
+    @Bean
+    public DefaultErrorHandler catalogSyncErrorHandler(KafkaOperations<?, ?> kafkaOperations,
+                                                       @Value("${catalog.sync.dead-letter-topic:catalog.products.dlt}") String deadLetterTopic,
+                                                       @Value("${catalog.sync.retry.initial-interval:1s}") Duration initialInterval,
+                                                       @Value("${catalog.sync.retry.max-interval:1m}") Duration maxInterval) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initialInterval.toMillis(), 2.0);
+        backOff.setMaxInterval(maxInterval.toMillis());
+        backOff.setMaxElapsedTime(Long.MAX_VALUE);
+
+        // Partition -1 lets the producer pick one, so the dead-letter topic needs no matching partition count
+        DeadLetterPublishingRecoverer deadLetters = new DeadLetterPublishingRecoverer(kafkaOperations,
+                (record, e) -> new TopicPartition(deadLetterTopic, -1));
+
+        DefaultErrorHandler handler = new DefaultErrorHandler((record, e) -> {
+            log.error("Product change {}-{}@{} can't be applied, moving it to {}",
+                    record.topic(), record.partition(), record.offset(), deadLetterTopic, e);
+            deadLetters.accept(record, e);
+        }, backOff);
+        // Unreadable payloads surface as MessageConversionException, which is not retryable by default
+        handler.addNotRetryableExceptions(RejectedProductChangesException.class);
+        return handler;
+    }
+}
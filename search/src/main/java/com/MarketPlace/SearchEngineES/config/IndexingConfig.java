@@ -0,0 +1,24 @@
+package com.MarketPlace.SearchEngineES.config;
+
+import com.MarketPlace.SearchEngineES.BulkIndexer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IndexingConfig {
+
+    @Bean
+    public BulkIndexer.Settings bulkIndexerSettings(@Value("${search.bulk.max-batch-bytes:5242880}") long maxBatchBytes,
+                                                    @Value("${search.bulk.max-batch-docs:5000}") int maxBatchDocs,
+                                                    @Value("${search.bulk.initial-concurrency:2}") int initialConcurrency,
+                                                    @Value("${search.bulk.max-concurrency:8}") int maxConcurrency,
+                                                    @Value("${search.bulk.max-retries:8}") int maxRetries,
+                                                    @Value("${search.bulk.initial-backoff:100ms}") Duration initialBackoff,
+                                                    @Value("${search.bulk.max-backoff:10s}") Duration maxBackoff) {
+        return new BulkIndexer.Settings(maxBatchBytes, maxBatchDocs, initialConcurrency,
+                maxConcurrency, maxRetries, initialBackoff, maxBackoff);
+    }
+}
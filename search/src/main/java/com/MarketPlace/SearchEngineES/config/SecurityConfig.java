@@ -1,24 +1,75 @@
 package com.MarketPlace.SearchEngineES.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * Index administration (rebuilds, which also delete old index versions) requires HTTP Basic
+     * credentials of the configured admin; without {@code search.admin.password} every such call is refused.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain adminFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/admin/**")
+            .authorizeHttpRequests(authz -> authz
+                .anyRequest().hasRole("ADMIN")
+            )
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authz -> authz
                 .anyRequest().permitAll()
             )
                 .csrf(AbstractHttpConfigurer::disable);
-        
+
         return http.build();
     }
+
+    /**
+     * The admin account. The password may be stored encoded, e.g. {@code {bcrypt}$2a$10$...};
+     * a value without an {@code {id}} prefix is compared as plain text.
+     */
+    @Bean
+    public UserDetailsService adminUsers(@Value("${search.admin.username:admin}") String username,
+                                         @Value("${search.admin.password:}") String password) {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            users.createUser(User.withUsername(username)
+                    .password(password.startsWith("{") ? password : "{noop}" + password)
+                    .roles("ADMIN")
+                    .build());
+        }
+        return users;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
 }
@@ -0,0 +1,21 @@
+package com.MarketPlace.SearchEngineES.controller;
+
+import com.MarketPlace.SearchEngineES.CatalogLoader;
+import com.MarketPlace.SearchEngineES.dto.CatalogLoadProgress;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class CatalogController {
+    private final CatalogLoader catalogLoader;
+
+    public CatalogController(CatalogLoader catalogLoader) {
+        this.catalogLoader = catalogLoader;
+    }
+
+    @GetMapping("/catalog/progress")
+    public ResponseEntity<CatalogLoadProgress> progress() {
+        return ResponseEntity.ok(catalogLoader.progress());
+    }
+}
@@ -0,0 +1,50 @@
+package com.MarketPlace.SearchEngineES.controller;
+
+import com.MarketPlace.SearchEngineES.ReindexService;
+import com.MarketPlace.SearchEngineES.dto.ReindexStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/reindex")
+@ConditionalOnProperty(name = "search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+public class ReindexController {
+    private final ReindexService reindexService;
+
+    public ReindexController(ReindexService reindexService) {
+        this.reindexService = reindexService;
+    }
+
+    /**
+     * Rebuilds the index from the catalog into a new version and switches the alias when done.
+     * Returns immediately; poll {@code GET /admin/reindex} for progress.
+     */
+    @PostMapping
+    public ResponseEntity<ReindexStatus> start() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reindexService.start());
+    }
+
+    @GetMapping
+    public ResponseEntity<ReindexStatus> status() {
+        return ResponseEntity.ok(reindexService.status());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> handleConflict(IllegalStateException ex) {
+        Map<String, String> err = new HashMap<>();
+        err.put("error", "conflict");
+        err.put("message", ex.getMessage());
+        return new ResponseEntity<>(err, HttpStatus.CONFLICT);
+    }
+}
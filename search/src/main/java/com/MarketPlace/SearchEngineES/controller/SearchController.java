@@ -3,6 +3,7 @@ package com.MarketPlace.SearchEngineES.controller;
 import com.MarketPlace.SearchEngineES.SearchEngine;
 import com.MarketPlace.SearchEngineES.dto.Document;
 import com.MarketPlace.SearchEngineES.dto.DtoQuery;
+import com.MarketPlace.SearchEngineES.dto.IdSearchResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +29,32 @@ public class SearchController {
         return ResponseEntity.ok(searchEngine.getDocumentList(dtoQuery));
     }
 
+    /**
+     * Ids and scores only, for internal callers that hydrate from their own store.
+     * Answers in Smile when the caller sends {@code Accept: application/x-jackson-smile}.
+     */
+    @PostMapping("/search/ids")
+    public ResponseEntity<IdSearchResponse> getIdList(@Valid @RequestBody DtoQuery dtoQuery) throws IOException {
+        return ResponseEntity.ok(searchEngine.getIdList(dtoQuery));
+    }
+
+    /**
+     * Cursor-based paging: send no cursor for the first page, then the returned {@code nextCursor}.
+     */
+    @PostMapping("/search/page")
+    public ResponseEntity<IdSearchResponse> getPage(@Valid @RequestBody DtoQuery dtoQuery) throws IOException {
+        return ResponseEntity.ok(searchEngine.getPage(dtoQuery));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, String>> handleBadArgument(IllegalArgumentException ex) {
+        Map<String, String> err = new HashMap<>();
+        err.put("error", "bad request");
+        err.put("message", ex.getMessage());
+        return new ResponseEntity<>(err, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IOException.class)
     @ResponseBody
     public ResponseEntity<Map<String, String>> handleIO(IOException ex) {
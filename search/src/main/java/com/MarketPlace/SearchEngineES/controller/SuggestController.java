@@ -0,0 +1,31 @@
+package com.MarketPlace.SearchEngineES.controller;
+
+import com.MarketPlace.SearchEngineES.SuggestService;
+import com.MarketPlace.SearchEngineES.dto.Suggestion;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class SuggestController {
+    private static final int MAX_LIMIT = 50;
+
+    private final SuggestService suggestService;
+
+    public SuggestController(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    /**
+     * Typeahead: names and tags starting with {@code q} (at any word), most popular first.
+     * Served from memory, never touches Elasticsearch.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam("q") String q,
+                                                    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(q, Math.max(0, Math.min(limit, MAX_LIMIT))));
+    }
+}
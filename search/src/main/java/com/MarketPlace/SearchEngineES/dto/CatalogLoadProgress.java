@@ -0,0 +1,11 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+public record CatalogLoadProgress(String phase,
+                                  long documentsRead,
+                                  long indexed,
+                                  long failed,
+                                  long retried,
+                                  double docsPerSecond,
+                                  long elapsedMs,
+                                  String error) {
+}
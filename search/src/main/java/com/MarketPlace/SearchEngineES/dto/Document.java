@@ -9,6 +9,8 @@ public class Document {
 
     private String[] tags;
 
+    private Double price;
+
     public Document() {
 
     }
@@ -20,6 +22,11 @@ public class Document {
         this.tags = tags;
     }
 
+    public Document(String id, String text, String name, String[] tags, Double price) {
+        this(id, text, name, tags);
+        this.price = price;
+    }
+
     public String getId() {
         return id;
     }
@@ -35,6 +42,10 @@ public class Document {
 
     public String[] getTags(){ return this.tags; }
 
+    public Double getPrice() {
+        return this.price;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -45,12 +56,17 @@ public class Document {
 
     public void setTags(String[] tags) { this.tags = tags; }
 
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
 
     @Override
     public String toString() {
         return "Document{" +
                 "id=" + id +
                 ", name='" + getName() + '\'' +
+                ", price=" + price +
                 ", text='" + (getText() != null ? getText().substring(0, Math.min(50, getText().length())) + "..." : "null") + '\'' +
                 '}';
     }
@@ -1,10 +1,14 @@
 package com.MarketPlace.SearchEngineES.dto;
 
 
+import com.MarketPlace.SearchEngineES.QueryStrategy;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
 
 @Valid
 public record DtoQuery(
@@ -13,6 +17,33 @@ public record DtoQuery(
 
         @Min(1)
         @NotNull
-        Integer cnt
+        Integer cnt,
+
+        String cursor,
+
+        QueryStrategy strategy,
+
+        // Documents carrying any of these tags
+        List<String> tags,
+
+        @PositiveOrZero
+        Double minPrice,
+
+        @PositiveOrZero
+        Double maxPrice,
+
+        // Return tag and price facet counts alongside the hits
+        Boolean facets
 ) {
+    public DtoQuery(String query, Integer cnt) {
+        this(query, cnt, null, null, null, null, null, null);
+    }
+
+    public boolean hasFilters() {
+        return (tags != null && !tags.isEmpty()) || minPrice != null || maxPrice != null;
+    }
+
+    public boolean wantsFacets() {
+        return Boolean.TRUE.equals(facets);
+    }
 }
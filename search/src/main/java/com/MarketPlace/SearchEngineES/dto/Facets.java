@@ -0,0 +1,18 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+import java.util.List;
+
+/**
+ * Facet counts over all documents matching a query and its filters, not just the returned page.
+ */
+public record Facets(List<TagCount> tags, List<PriceRange> prices) {
+
+    public record TagCount(String tag, long count) {
+    }
+
+    /**
+     * Histogram bucket covering {@code [from, to)}.
+     */
+    public record PriceRange(double from, double to, long count) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * {@code nextCursor} is only set by paged searches and is null on the last page;
+ * {@code facets} only when the query asked for them. {@code generation} identifies the index contents the
+ * hits came from, see {@link com.MarketPlace.SearchEngineES.SearchBackend#generation()}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IdSearchResponse(List<DocumentScore> hits, String nextCursor, Facets facets, String generation) {
+
+    public IdSearchResponse(List<DocumentScore> hits, String nextCursor, Facets facets) {
+        this(hits, nextCursor, facets, null);
+    }
+
+    public IdSearchResponse(List<DocumentScore> hits) {
+        this(hits, null, null);
+    }
+
+    public IdSearchResponse withGeneration(String generation) {
+        return new IdSearchResponse(hits, nextCursor, facets, generation);
+    }
+}
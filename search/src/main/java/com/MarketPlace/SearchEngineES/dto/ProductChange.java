@@ -0,0 +1,21 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+import java.util.Map;
+
+/**
+ * A product change relayed from the processing service's outbox.
+ *
+ * @param version increases with every change; older versions than the indexed one are ignored
+ * @param op      {@code UPSERT} or {@code DELETE}
+ * @param data    the product's raw data; null for deletes
+ */
+public record ProductChange(long version,
+                            String productId,
+                            String op,
+                            String name,
+                            Map<String, Object> data) {
+
+    public boolean isDelete() {
+        return "DELETE".equals(op);
+    }
+}
@@ -0,0 +1,17 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ReindexStatus(String phase,
+                            String index,
+                            List<String> previousIndices,
+                            List<String> removedIndices,
+                            long documentsRead,
+                            long indexed,
+                            long failed,
+                            double docsPerSecond,
+                            Instant startedAt,
+                            Instant finishedAt,
+                            String error) {
+}
@@ -0,0 +1,4 @@
+package com.MarketPlace.SearchEngineES.dto;
+
+public record Suggestion(String text, long weight) {
+}
@@ -0,0 +1,247 @@
+package com.MarketPlace.SearchEngineES;
+
+import com.MarketPlace.SearchEngineES.config.CatalogSyncConfig;
+import com.MarketPlace.SearchEngineES.dto.ProductChange;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The catalog sync listener against an embedded broker, with the listener container and its error handler
+ * wired by Spring Boot as in the application; Elasticsearch is mocked. Every test starts a fresh context
+ * with a stopped listener and uses its own product ids, since the topic outlives the context.
+ */
+@SpringBootTest(classes = ProductChangeListenerTest.Config.class, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "catalog.sync.enabled=true",
+        "catalog.sync.topic=" + ProductChangeListenerTest.TOPIC,
+        "catalog.sync.dead-letter-topic=" + ProductChangeListenerTest.DEAD_LETTER_TOPIC,
+        "catalog.sync.retry.initial-interval=10ms",
+        "catalog.sync.retry.max-interval=50ms"
+})
+@EmbeddedKafka(partitions = 1, topics = {ProductChangeListenerTest.TOPIC, ProductChangeListenerTest.DEAD_LETTER_TOPIC})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ProductChangeListenerTest {
+
+    static final String TOPIC = "catalog.products";
+    static final String DEAD_LETTER_TOPIC = "catalog.products.dlt";
+
+    private static final long WAIT_MS = 10_000;
+
+    @Configuration
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @Import({ProductChangeListener.class, CatalogSyncConfig.class})
+    static class Config {
+    }
+
+    @MockitoBean
+    private ElasticsearchClientDocker esClient;
+
+    @Autowired
+    private ProductChangeListener listener;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    private final List<ProductChange> applied = new CopyOnWriteArrayList<>();
+
+    @Test
+    void appliesChangesInTopicOrderOnlyOnceStarted() throws Exception {
+        recordApplied();
+        send(1, "a1", "UPSERT");
+        send(2, "a1", "UPSERT");
+        send(3, "a1", "DELETE");
+
+        verify(esClient, after(500).never()).applyProductChanges(eq(SearchEngine.INDEX_NAME), anyList());
+
+        listener.start();
+
+        List<ProductChange> changes = awaitApplied("a1", 3);
+        assertEquals(List.of(1L, 2L, 3L), changes.stream().map(ProductChange::version).toList());
+        assertTrue(changes.get(2).isDelete());
+    }
+
+    @Test
+    void retriesAFailingBatchUntilItIsApplied() throws Exception {
+        // More failures than the default error handler's 9 retries, after which it would skip the batch
+        int failures = 12;
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IOException("Elasticsearch unavailable");
+            }
+            applied.addAll(invocation.getArgument(1));
+            return null;
+        }).when(esClient).applyProductChanges(eq(SearchEngine.INDEX_NAME), anyList());
+
+        send(7, "b1", "UPSERT");
+        listener.start();
+
+        assertEquals(7L, awaitApplied("b1", 1).get(0).version());
+        assertTrue(attempts.get() > failures);
+    }
+
+    @Test
+    void movesAnUnreadablePayloadToTheDeadLetterTopicAndAppliesTheChangesAfterIt() throws Exception {
+        recordApplied();
+        send(1, "d1", "UPSERT");
+        kafkaTemplate.send(TOPIC, "d2", "{not json").get(WAIT_MS, TimeUnit.MILLISECONDS);
+        send(3, "d3", "UPSERT");
+
+        listener.start();
+
+        assertEquals(1L, awaitApplied("d1", 1).get(0).version());
+        assertEquals(3L, awaitApplied("d3", 1).get(0).version());
+        assertTrue(deadLetters().contains("{not json"));
+    }
+
+    @Test
+    void movesAChangeElasticsearchRejectsToTheDeadLetterTopicAndAppliesTheRest() throws Exception {
+        doAnswer(invocation -> {
+            List<ProductChange> changes = invocation.getArgument(1);
+            List<Integer> rejected = new ArrayList<>();
+            for (int i = 0; i < changes.size(); i++) {
+                if (changes.get(i).productId().equals("e2")) {
+                    rejected.add(i);
+                }
+            }
+            if (!rejected.isEmpty()) {
+                // The changes before the rejected one are committed; those after it are delivered again
+                applied.addAll(changes.subList(0, rejected.get(0)));
+                throw new RejectedProductChangesException(rejected, "e2: mapper_parsing_exception (400)");
+            }
+            applied.addAll(changes);
+            return null;
+        }).when(esClient).applyProductChanges(eq(SearchEngine.INDEX_NAME), anyList());
+
+        send(1, "e1", "UPSERT");
+        send(2, "e2", "UPSERT");
+        send(3, "e3", "UPSERT");
+
+        listener.start();
+
+        assertEquals(1L, awaitApplied("e1", 1).get(0).version());
+        assertEquals(3L, awaitApplied("e3", 1).get(0).version());
+        assertTrue(applied("e2").isEmpty());
+        assertTrue(deadLetters().stream().anyMatch(payload -> payload.contains("\"productId\":\"e2\"")));
+    }
+
+    @Test
+    void pauseWaitsForTheBatchInProgressAndHoldsBackLaterChanges() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<ProductChange> changes = invocation.getArgument(1);
+            if (changes.stream().anyMatch(change -> change.productId().equals("c1"))) {
+                entered.countDown();
+                release.await();
+            }
+            applied.addAll(changes);
+            return null;
+        }).when(esClient).applyProductChanges(eq(SearchEngine.INDEX_NAME), anyList());
+
+        send(1, "c1", "UPSERT");
+        listener.start();
+        assertTrue(entered.await(WAIT_MS, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<Void> paused = CompletableFuture.runAsync(() -> {
+            try {
+                listener.pause(Duration.ofMillis(WAIT_MS));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(300);
+        assertFalse(paused.isDone(), "pause must wait for the batch being applied");
+
+        release.countDown();
+        paused.get(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(1, applied("c1").size());
+
+        send(2, "c2", "UPSERT");
+        Thread.sleep(500);
+        assertTrue(applied("c2").isEmpty(), "a paused listener must not apply changes");
+
+        listener.resume();
+        assertEquals(2L, awaitApplied("c2", 1).get(0).version());
+    }
+
+    private void recordApplied() throws IOException {
+        doAnswer(invocation -> {
+            applied.addAll(invocation.getArgument(1));
+            return null;
+        }).when(esClient).applyProductChanges(eq(SearchEngine.INDEX_NAME), anyList());
+    }
+
+    private void send(long version, String productId, String op) throws Exception {
+        String data = "DELETE".equals(op) ? "null" : "{\"price\":" + version + "}";
+        String payload = "{\"version\":" + version + ",\"productId\":\"" + productId + "\",\"op\":\"" + op
+                + "\",\"name\":\"Product " + productId + "\",\"data\":" + data + "}";
+        kafkaTemplate.send(TOPIC, productId, payload).get(WAIT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private List<String> deadLetters() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dead-letters", "false", broker);
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, DEAD_LETTER_TOPIC);
+            List<String> payloads = new ArrayList<>();
+            for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(consumer, Duration.ofMillis(WAIT_MS))) {
+                payloads.add(record.value());
+            }
+            return payloads;
+        }
+    }
+
+    private List<ProductChange> applied(String productId) {
+        return applied.stream().filter(change -> change.productId().equals(productId)).toList();
+    }
+
+    private List<ProductChange> awaitApplied(String productId, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_MS);
+        while (applied(productId).size() < count && System.nanoTime() - deadline < 0) {
+            Thread.sleep(20);
+        }
+        List<ProductChange> changes = applied(productId);
+        assertEquals(count, changes.size());
+        return changes;
+    }
+}